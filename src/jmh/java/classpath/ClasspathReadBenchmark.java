@@ -0,0 +1,153 @@
+package classpath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Compares the resource reading strategies of {@code ClasspathIoTest} and {@link ResourceBytes} for directory and
+ * jar backed resources.
+ * Run with {@code gradle jmh -Pjmh.includes=ClasspathReadBenchmark}; the gc profiler reports allocation rate and
+ * GC pressure alongside throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ClasspathReadBenchmark {
+    private static final String RESOURCE_NAME = "payload.txt";
+    private static final byte[] LINE = "classpathLine\n".getBytes(StandardCharsets.UTF_8);
+
+    public enum Source {DIRECTORY, JAR}
+
+    @Param({"DIRECTORY", "JAR"})
+    private Source source;
+
+    @Param({"1024", "65536", "1048576", "16777216", "536870912"})
+    private int payloadSize;
+
+    private Path tempDir;
+    private URLClassLoader classLoader;
+    private FileSystem jarFileSystem;
+    private URI resourceUri;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("classpath-read");
+        Path root = source == Source.DIRECTORY ? createDirectoryRoot() : createJarRoot();
+        classLoader = new URLClassLoader(new URL[]{root.toUri().toURL()}, null);
+        resourceUri = classLoader.getResource(RESOURCE_NAME).toURI();
+        if (source == Source.JAR)
+            jarFileSystem = FileSystems.newFileSystem(resourceUri, Collections.emptyMap());
+    }
+
+    private Path createDirectoryRoot() throws IOException {
+        Path dir = Files.createDirectory(tempDir.resolve("classes"));
+        try (OutputStream os = Files.newOutputStream(dir.resolve(RESOURCE_NAME))) {
+            writePayload(os);
+        }
+        return dir;
+    }
+
+    private Path createJarRoot() throws IOException {
+        Path jar = tempDir.resolve("resources.jar");
+        try (JarOutputStream os = new JarOutputStream(Files.newOutputStream(jar))) {
+            os.putNextEntry(new JarEntry(RESOURCE_NAME));
+            writePayload(os);
+            os.closeEntry();
+        }
+        return jar;
+    }
+
+    private void writePayload(OutputStream os) throws IOException {
+        for (int written = 0; written < payloadSize; written += LINE.length)
+            os.write(LINE, 0, Math.min(LINE.length, payloadSize - written));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (jarFileSystem != null) jarFileSystem.close();
+        classLoader.close();
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String readAsByteArrayOutputStream() throws IOException {
+        try (InputStream is = classLoader.getResourceAsStream(RESOURCE_NAME)) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int length;
+            while ((length = is.read(buffer)) != -1) os.write(buffer, 0, length);
+            return os.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public String readViaTransferTo() throws IOException {
+        try (InputStream is = classLoader.getResourceAsStream(RESOURCE_NAME)) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            is.transferTo(os);
+            return os.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public String readViaResourceBytes() throws IOException {
+        return ResourceBytes.readString(classLoader.getResource(RESOURCE_NAME), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void readAsLineStream(Blackhole blackhole) throws IOException {
+        InputStream is = classLoader.getResourceAsStream(RESOURCE_NAME);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            br.lines().forEach(blackhole::consume);
+        }
+    }
+
+    /**
+     * For jar resources this relies on the zip file system opened in {@link #setUp()}, without which
+     * {@code Paths.get(uri)} throws {@link java.nio.file.FileSystemNotFoundException}.
+     */
+    @Benchmark
+    public String readAsBytes() throws IOException {
+        byte[] bytes = Files.readAllBytes(Paths.get(resourceUri));
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,117 @@
+package classpath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Measures a cold start: a fresh JVM per fork opens the resources and loads every one of them once, either through a
+ * new {@link URLClassLoader} over {@code jarCount} jars with {@code getResourceAsStream}, or from a
+ * {@link ResourcePack} of the same jars. Run with {@code gradle jmh -Pjmh.includes=ResourcePackStartupBenchmark}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class ResourcePackStartupBenchmark {
+    @Param({"1", "30"})
+    private int jarCount;
+
+    @Param({"100"})
+    private int resourcesPerJar;
+
+    @Param({"1024"})
+    private int resourceSize;
+
+    private Path tempDir;
+    private URL[] jars;
+    private Path blob;
+    private List<String> names;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("resource-pack");
+        List<Path> jarPaths = new ArrayList<>();
+        names = new ArrayList<>();
+        byte[] content = new byte[resourceSize];
+        for (int jar = 0; jar < jarCount; jar++) {
+            Path jarPath = tempDir.resolve("resources-" + jar + ".jar");
+            try (JarOutputStream os = new JarOutputStream(Files.newOutputStream(jarPath))) {
+                for (int i = 0; i < resourcesPerJar; i++) {
+                    String name = "module" + jar + "/config/resource-" + i + ".properties";
+                    ThreadLocalRandom.current().nextBytes(content);
+                    os.putNextEntry(new JarEntry(name));
+                    os.write(content);
+                    os.closeEntry();
+                    names.add(name);
+                }
+            }
+            jarPaths.add(jarPath);
+        }
+        jars = new URL[jarCount];
+        for (int i = 0; i < jarCount; i++) jars[i] = jarPaths.get(i).toUri().toURL();
+        blob = tempDir.resolve("resources.pack");
+        ResourcePack.write(blob, jarPaths);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long classLoader() throws IOException {
+        long total = 0;
+        try (URLClassLoader loader = new URLClassLoader(jars, null)) {
+            for (String name : names) {
+                try (InputStream is = loader.getResourceAsStream(name)) {
+                    total += is.readAllBytes().length;
+                }
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long resourcePack() throws IOException {
+        ResourcePack pack = ResourcePack.open(blob);
+        long total = 0;
+        for (String name : names) {
+            ByteBuffer resource = pack.get(name);
+            byte[] bytes = new byte[resource.remaining()];
+            resource.get(bytes);
+            total += bytes.length;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,90 @@
+package collection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures construction, {@code get} hits and misses and entry iteration for the multi-entry maps of {@code MapTest}
+ * with String and boxed Long keys; one-entry maps are covered by {@link SingletonMapBenchmark}. Lookups probe
+ * {@value #PROBES} keys in random order per operation, so large maps pay for cache misses. Run with
+ * {@code gradle jmh -Pjmh.includes=collection.MapBenchmark}; results are also written to
+ * {@code build/reports/jmh/results.json}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class MapBenchmark {
+    static final int PROBES = 1024;
+
+    @Param({"HASH_MAP", "COLLECTORS_TO_MAP", "MAP_OF", "VAVR", "GUAVA"})
+    private MapKind kind;
+
+    @Param({"STRING", "LONG"})
+    private MapKind.KeyType keyType;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    private int size;
+
+    private Object[] keys;
+    private Map<Object, Object> map;
+    private Object[] hits;
+    private Object[] misses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = keyType.keys(0, size);
+        map = kind.build(keys, keys);
+        Object[] missingKeys = keyType.keys(size, Math.min(size, PROBES));
+        Random random = new Random(42);
+        hits = new Object[PROBES];
+        misses = new Object[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            hits[i] = keys[random.nextInt(size)];
+            misses[i] = missingKeys[random.nextInt(missingKeys.length)];
+        }
+    }
+
+    @Benchmark
+    public Map<Object, Object> construct() {
+        return kind.build(keys, keys);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void getHit(Blackhole blackhole) {
+        for (Object key : hits) blackhole.consume(map.get(key));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void getMiss(Blackhole blackhole) {
+        for (Object key : misses) blackhole.consume(map.get(key));
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            blackhole.consume(entry.getKey());
+            blackhole.consume(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package collection;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reports the retained heap of each {@link MapKind} per entry, excluding the keys and values themselves, as a table
+ * and as JSON in {@code build/reports/jmh/map-footprint.json}. Rows with key type {@code LONG_TO_LONG} compare
+ * {@link LongLongHashMap} with the boxed maps of {@link PrimitiveMapBenchmark} and include the boxes, which the
+ * primitive map does not need. Sizes can be given as arguments. Run with {@code gradle mapFootprint} or
+ * {@code gradle mapFootprint -Pfootprint.sizes=10000000}.
+ */
+public class MapFootprint {
+    private static final int[] DEFAULT_SIZES = {1, 10, 1000, 100_000, 1_000_000};
+
+    private final PrintWriter json;
+    private String separator = "";
+
+    private MapFootprint(PrintWriter json) {
+        this.json = json;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length == 0 ? DEFAULT_SIZES : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        Path file = Paths.get("build", "reports", "jmh", "map-footprint.json");
+        Files.createDirectories(file.getParent());
+        System.out.printf("%-18s %-12s %10s %14s %10s%n", "kind", "keys", "size", "bytes", "B/entry");
+        try (PrintWriter json = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            json.println("[");
+            MapFootprint footprint = new MapFootprint(json);
+            for (MapKind.KeyType keyType : MapKind.KeyType.values()) {
+                for (int size : sizes) footprint.boxed(keyType, size);
+            }
+            for (int size : sizes) footprint.longToLong(size);
+            json.println();
+            json.println("]");
+        }
+    }
+
+    private void boxed(MapKind.KeyType keyType, int size) {
+        Object[] keys = keyType.keys(0, size);
+        for (MapKind kind : MapKind.values()) {
+            if (kind == MapKind.SINGLETON && size != 1) continue;
+            report(kind.name(), keyType.name(), size, overhead(kind.build(keys, keys), keys));
+        }
+    }
+
+    private static long overhead(Map<Object, Object> map, Object[] keys) {
+        return GraphLayout.parseInstance(map).subtract(GraphLayout.parseInstance(keys)).totalSize();
+    }
+
+    private void longToLong(int size) {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) keys[i] = 1_000_000_000L + i;
+        report("LONG_LONG_HASH_MAP", "LONG_TO_LONG", size, retained(PrimitiveMapBenchmark.buildPrimitive(keys)));
+        report("HASH_MAP", "LONG_TO_LONG", size, retained(PrimitiveMapBenchmark.buildHashMap(keys)));
+        report("GUAVA", "LONG_TO_LONG", size, retained(PrimitiveMapBenchmark.buildGuava(keys)));
+        report("VAVR_PERSISTENT", "LONG_TO_LONG", size, retained(PrimitiveMapBenchmark.buildVavr(keys)));
+    }
+
+    private static long retained(Object map) {
+        return GraphLayout.parseInstance(map).totalSize();
+    }
+
+    private void report(String kind, String keyType, int size, long bytes) {
+        double perEntry = (double) bytes / size;
+        System.out.printf("%-18s %-12s %10d %14d %10.1f%n", kind, keyType, size, bytes, perEntry);
+        json.printf(Locale.ROOT, "%s  {\"kind\": \"%s\", \"keyType\": \"%s\", \"size\": %d, \"bytes\": %d, "
+                + "\"bytesPerEntry\": %.2f}", separator, kind, keyType, size, bytes, perEntry);
+        separator = ",\n";
+    }
+}
@@ -0,0 +1,95 @@
+package collection;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The ways {@code MapTest} builds a map, each building a map from parallel key and value arrays.
+ */
+public enum MapKind {
+    SINGLETON {
+        @Override
+        Map<Object, Object> build(Object[] keys, Object[] values) {
+            if (keys.length != 1) throw new IllegalArgumentException("singletonMap holds exactly one entry");
+            return Collections.singletonMap(keys[0], values[0]);
+        }
+    },
+    HASH_MAP {
+        @Override
+        Map<Object, Object> build(Object[] keys, Object[] values) {
+            Map<Object, Object> map = new HashMap<>();
+            for (int i = 0; i < keys.length; i++) map.put(keys[i], values[i]);
+            return map;
+        }
+    },
+    COLLECTORS_TO_MAP {
+        @Override
+        Map<Object, Object> build(Object[] keys, Object[] values) {
+            return IntStream.range(0, keys.length)
+                    .mapToObj(i -> new SimpleImmutableEntry<>(keys[i], values[i]))
+                    .collect(Collectors.toMap(SimpleImmutableEntry::getKey, SimpleImmutableEntry::getValue));
+        }
+    },
+    MAP_OF {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map<Object, Object> build(Object[] keys, Object[] values) {
+            Map.Entry<Object, Object>[] entries = new Map.Entry[keys.length];
+            for (int i = 0; i < keys.length; i++) entries[i] = Map.entry(keys[i], values[i]);
+            return Map.ofEntries(entries);
+        }
+    },
+    VAVR {
+        @Override
+        Map<Object, Object> build(Object[] keys, Object[] values) {
+            io.vavr.collection.HashMap<Object, Object> map = io.vavr.collection.HashMap.empty();
+            for (int i = 0; i < keys.length; i++) map = map.put(keys[i], values[i]);
+            return map.toJavaMap();
+        }
+    },
+    GUAVA {
+        @Override
+        Map<Object, Object> build(Object[] keys, Object[] values) {
+            ImmutableMap.Builder<Object, Object> builder = ImmutableMap.builderWithExpectedSize(keys.length);
+            for (int i = 0; i < keys.length; i++) builder.put(keys[i], values[i]);
+            return builder.build();
+        }
+    };
+
+    abstract Map<Object, Object> build(Object[] keys, Object[] values);
+
+    /**
+     * The key types benchmarked: {@code key<n>} strings and sequential boxed longs beyond the {@code Long} cache.
+     */
+    public enum KeyType {
+        STRING {
+            @Override
+            Object key(long n) {
+                return "key" + n;
+            }
+        },
+        LONG {
+            @Override
+            Object key(long n) {
+                return 1_000_000_000L + n;
+            }
+        };
+
+        abstract Object key(long n);
+
+        /**
+         * Keys {@code first} to {@code first + count - 1}, which are distinct from all other keys.
+         */
+        Object[] keys(long first, int count) {
+            Object[] keys = new Object[count];
+            for (int i = 0; i < count; i++) keys[i] = key(first + i);
+            return keys;
+        }
+    }
+}
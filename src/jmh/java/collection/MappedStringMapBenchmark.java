@@ -0,0 +1,134 @@
+package collection;
+
+import com.google.common.collect.ImmutableMap;
+import file.TreeDeleter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static collection.MapBenchmark.PROBES;
+
+/**
+ * Compares random {@code get} latency of {@link MappedStringMap} with an on-heap {@link HashMap} and Guava
+ * {@link ImmutableMap} holding the same strings. Each map lives in its own state so a trial only builds the map it
+ * measures; {@link MappedStringMapStartupBenchmark} measures the time until the first lookup. Run with
+ * {@code gradle jmh -Pjmh.includes=MappedStringMapBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class MappedStringMapBenchmark {
+    @State(Scope.Benchmark)
+    public static class Keys {
+        @Param({"100000", "1000000", "10000000"})
+        int size;
+
+        String[] probes;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Random random = new Random(42);
+            probes = new String[PROBES];
+            for (int i = 0; i < PROBES; i++) probes[i] = key(random.nextInt(size));
+            build();
+        }
+
+        void build() throws IOException {
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HashMapState extends Keys {
+        Map<String, String> map;
+
+        @Override
+        void build() {
+            map = new HashMap<>();
+            for (int i = 0; i < size; i++) map.put(key(i), value(i));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class GuavaState extends Keys {
+        Map<String, String> map;
+
+        @Override
+        void build() {
+            ImmutableMap.Builder<String, String> builder = ImmutableMap.builderWithExpectedSize(size);
+            for (int i = 0; i < size; i++) builder.put(key(i), value(i));
+            map = builder.build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class MappedState extends Keys {
+        Path dir;
+        MappedStringMap map;
+
+        @Override
+        void build() throws IOException {
+            dir = Files.createTempDirectory("mapped-map");
+            map = write(dir.resolve("map.bin"), size);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            map.close();
+            new TreeDeleter().delete(dir);
+        }
+    }
+
+    static String key(int i) {
+        return "key-" + i;
+    }
+
+    static String value(int i) {
+        return "value-" + i + "-" + Integer.toHexString(i * 0x9E3779B9);
+    }
+
+    static MappedStringMap write(Path file, int size) throws IOException {
+        MappedStringMap map = MappedStringMap.create(file, size);
+        for (int i = 0; i < size; i++) map.put(key(i), value(i));
+        return map;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void getHashMap(HashMapState state, Blackhole blackhole) {
+        for (String key : state.probes) blackhole.consume(state.map.get(key));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void getGuava(GuavaState state, Blackhole blackhole) {
+        for (String key : state.probes) blackhole.consume(state.map.get(key));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void getMapped(MappedState state, Blackhole blackhole) {
+        for (String key : state.probes) blackhole.consume(state.map.get(key));
+    }
+}
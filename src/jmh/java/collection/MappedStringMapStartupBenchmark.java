@@ -0,0 +1,105 @@
+package collection;
+
+import com.google.common.collect.ImmutableMap;
+import file.TreeDeleter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static collection.MappedStringMapBenchmark.key;
+import static collection.MappedStringMapBenchmark.value;
+
+/**
+ * Measures a restart: a fresh JVM per fork makes the dictionary ready and looks up one key, either by loading a
+ * tab-separated file into a {@link HashMap} or {@link ImmutableMap}, or by reopening a {@link MappedStringMap}
+ * read-only. Both files are in the page cache, so this is the rebuild cost rather than disk speed. Run with
+ * {@code gradle jmh -Pjmh.includes=MappedStringMapStartupBenchmark}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 5, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class MappedStringMapStartupBenchmark {
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    private Path dir;
+    private Path tsv;
+    private Path mapped;
+    private String probe;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("mapped-map-startup");
+        tsv = dir.resolve("map.tsv");
+        mapped = dir.resolve("map.bin");
+        try (BufferedWriter writer = Files.newBufferedWriter(tsv, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                writer.write(key(i));
+                writer.write('\t');
+                writer.write(value(i));
+                writer.write('\n');
+            }
+        }
+        MappedStringMapBenchmark.write(mapped, size).close();
+        probe = key(size / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        new TreeDeleter().delete(dir);
+    }
+
+    @Benchmark
+    public String loadHashMap() throws IOException {
+        Map<String, String> map = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(tsv, StandardCharsets.UTF_8)) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                int tab = line.indexOf('\t');
+                map.put(line.substring(0, tab), line.substring(tab + 1));
+            }
+        }
+        return map.get(probe);
+    }
+
+    @Benchmark
+    public String loadGuava() throws IOException {
+        ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+        try (BufferedReader reader = Files.newBufferedReader(tsv, StandardCharsets.UTF_8)) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                int tab = line.indexOf('\t');
+                builder.put(line.substring(0, tab), line.substring(tab + 1));
+            }
+        }
+        return builder.build().get(probe);
+    }
+
+    @Benchmark
+    public String openMapped() throws IOException {
+        try (MappedStringMap map = MappedStringMap.openReadOnly(mapped)) {
+            return map.get(probe);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package collection;
+
+import com.google.common.collect.ImmutableMap;
+import io.vavr.collection.HashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static collection.MapBenchmark.PROBES;
+
+/**
+ * Compares {@link LongLongHashMap} with a {@code java.util.HashMap<Long, Long>}, a Guava {@link ImmutableMap} and a
+ * vavr {@link HashMap} for construction, random {@code get} hits and summing all values. Each map lives in its own
+ * state so a trial only builds the map it measures. Run with
+ * {@code gradle jmh -Pjmh.includes=PrimitiveMapBenchmark}; {@code gradle mapFootprint} reports the retained heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class PrimitiveMapBenchmark {
+    @State(Scope.Benchmark)
+    public static class Keys {
+        @Param({"1000", "1000000", "10000000"})
+        int size;
+
+        long[] keys;
+        long[] probes;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            keys = new long[size];
+            for (int i = 0; i < size; i++) keys[i] = 1_000_000_000L + i;
+            Random random = new Random(42);
+            probes = new long[PROBES];
+            for (int i = 0; i < PROBES; i++) probes[i] = keys[random.nextInt(size)];
+            build();
+        }
+
+        void build() {
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PrimitiveState extends Keys {
+        LongLongHashMap map;
+
+        @Override
+        void build() {
+            map = buildPrimitive(keys);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HashMapState extends Keys {
+        Map<Long, Long> map;
+
+        @Override
+        void build() {
+            map = buildHashMap(keys);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class GuavaState extends Keys {
+        ImmutableMap<Long, Long> map;
+
+        @Override
+        void build() {
+            map = buildGuava(keys);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class VavrState extends Keys {
+        HashMap<Long, Long> map;
+
+        @Override
+        void build() {
+            map = buildVavr(keys);
+        }
+    }
+
+    static LongLongHashMap buildPrimitive(long[] keys) {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key : keys) map.put(key, key * 3);
+        return map;
+    }
+
+    static Map<Long, Long> buildHashMap(long[] keys) {
+        Map<Long, Long> map = new java.util.HashMap<>();
+        for (long key : keys) map.put(key, key * 3);
+        return map;
+    }
+
+    static ImmutableMap<Long, Long> buildGuava(long[] keys) {
+        ImmutableMap.Builder<Long, Long> builder = ImmutableMap.builder();
+        for (long key : keys) builder.put(key, key * 3);
+        return builder.build();
+    }
+
+    static HashMap<Long, Long> buildVavr(long[] keys) {
+        HashMap<Long, Long> map = HashMap.empty();
+        for (long key : keys) map = map.put(key, key * 3);
+        return map;
+    }
+
+    @Benchmark
+    public LongLongHashMap constructPrimitive(Keys state) {
+        return buildPrimitive(state.keys);
+    }
+
+    @Benchmark
+    public Map<Long, Long> constructHashMap(Keys state) {
+        return buildHashMap(state.keys);
+    }
+
+    @Benchmark
+    public ImmutableMap<Long, Long> constructGuava(Keys state) {
+        return buildGuava(state.keys);
+    }
+
+    @Benchmark
+    public HashMap<Long, Long> constructVavr(Keys state) {
+        return buildVavr(state.keys);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public long getPrimitive(PrimitiveState state) {
+        long sum = 0;
+        for (long key : state.probes) sum += state.map.get(key);
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public long getHashMap(HashMapState state) {
+        long sum = 0;
+        for (long key : state.probes) sum += state.map.get(key);
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public long getGuava(GuavaState state) {
+        long sum = 0;
+        for (long key : state.probes) sum += state.map.get(key);
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public long getVavr(VavrState state) {
+        long sum = 0;
+        for (long key : state.probes) sum += state.map.get(key).get();
+        return sum;
+    }
+
+    @Benchmark
+    public long sumPrimitive(PrimitiveState state) {
+        long sum = 0;
+        LongLongHashMap.Cursor cursor = state.map.cursor();
+        while (cursor.next()) sum += cursor.value();
+        return sum;
+    }
+
+    @Benchmark
+    public long sumHashMap(HashMapState state) {
+        long sum = 0;
+        for (long value : state.map.values()) sum += value;
+        return sum;
+    }
+
+    @Benchmark
+    public long sumGuava(GuavaState state) {
+        long sum = 0;
+        for (long value : state.map.values()) sum += value;
+        return sum;
+    }
+
+    @Benchmark
+    public long sumVavr(VavrState state) {
+        long sum = 0;
+        for (long value : state.map.values()) sum += value;
+        return sum;
+    }
+}
@@ -0,0 +1,72 @@
+package collection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MapBenchmark} for one-entry maps, where {@code Collections.singletonMap} competes with the general maps.
+ * Run with {@code gradle jmh -Pjmh.includes=SingletonMapBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SingletonMapBenchmark {
+    @Param({"SINGLETON", "HASH_MAP", "COLLECTORS_TO_MAP", "MAP_OF", "VAVR", "GUAVA"})
+    private MapKind kind;
+
+    @Param({"STRING", "LONG"})
+    private MapKind.KeyType keyType;
+
+    private Object[] keys;
+    private Object hit;
+    private Object miss;
+    private Map<Object, Object> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = keyType.keys(0, 1);
+        hit = keys[0];
+        miss = keyType.key(1);
+        map = kind.build(keys, keys);
+    }
+
+    @Benchmark
+    public Map<Object, Object> construct() {
+        return kind.build(keys, keys);
+    }
+
+    @Benchmark
+    public Object getHit() {
+        return map.get(hit);
+    }
+
+    @Benchmark
+    public Object getMiss() {
+        return map.get(miss);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            blackhole.consume(entry.getKey());
+            blackhole.consume(entry.getValue());
+        }
+    }
+}
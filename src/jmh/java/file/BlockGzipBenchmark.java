@@ -0,0 +1,119 @@
+package file;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes and reads a line file with a single {@link GZIPOutputStream}/{@link GZIPInputStream} and with
+ * {@link BlockGzipWriter}/{@link BlockGzipReader} on a pool of {@code threads} threads. Comparing {@code threads=1}
+ * with the core count shows how compression throughput scales. Files are created under {@code bench.dir} (default:
+ * the temporary directory). Run with {@code gradle jmh -Pjmh.includes=BlockGzipBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockGzipBenchmark {
+    @Param({"1000000"})
+    private int lineCount;
+
+    @Param({"1", "0"})
+    private int threads;
+
+    private Path dir;
+    private String[] lines;
+    private ForkJoinPool pool;
+    private Path gzipFile;
+    private Path blockFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String base = System.getProperty("bench.dir");
+        dir = base == null
+                ? Files.createTempDirectory("block-gzip")
+                : Files.createTempDirectory(Paths.get(base), "block-gzip");
+        lines = new String[lineCount];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < lineCount; i++) {
+            lines[i] = "2024-01-01T00:00:" + (i % 60) + " INFO request=" + i + " status=" + (200 + random.nextInt(4))
+                    + " latency=" + random.nextInt(1000) + "ms";
+        }
+        pool = new ForkJoinPool(threads == 0 ? Runtime.getRuntime().availableProcessors() : threads);
+        gzipFile = dir.resolve("plain.gz");
+        blockFile = dir.resolve("block.gz");
+        writeGzip();
+        writeBlockGzip();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        new TreeDeleter().delete(dir);
+    }
+
+    @Benchmark
+    public long writeGzip() throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(gzipFile), 64 * 1024), StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        return Files.size(gzipFile);
+    }
+
+    @Benchmark
+    public long writeBlockGzip() throws IOException {
+        try (BlockGzipWriter writer = new BlockGzipWriter(blockFile, pool, pool.getParallelism() * 2,
+                BlockGzipWriter.DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION)) {
+            for (String line : lines) writer.writeLine(line);
+        }
+        return Files.size(blockFile);
+    }
+
+    @Benchmark
+    public long readGzip() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(gzipFile), 64 * 1024), StandardCharsets.UTF_8))) {
+            return reader.lines().mapToInt(String::length).sum();
+        }
+    }
+
+    @Benchmark
+    public long readBlockGzip() throws IOException {
+        try (BlockGzipReader reader = new BlockGzipReader(blockFile, pool, pool.getParallelism() * 2)) {
+            return reader.lines().mapToInt(String::length).sum();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package file;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads many small files with {@link BulkFileLoader} on virtual threads, with the same loader on a fixed pool of
+ * platform threads, and sequentially on the caller thread. Files are created under {@code bench.dir} (default: the
+ * temporary directory). Run with {@code gradle jmh -Pjmh.includes=BulkLoadBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkLoadBenchmark {
+    @Param({"1000", "100000"})
+    private int fileCount;
+
+    @Param({"1024", "16384"})
+    private int fileSize;
+
+    @Param({"16"})
+    private int platformThreads;
+
+    private Path dir;
+    private List<Path> files;
+    private ExecutorService platformPool;
+    private BulkFileLoader virtualLoader;
+    private BulkFileLoader platformLoader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String base = System.getProperty("bench.dir");
+        dir = base == null
+                ? Files.createTempDirectory("bulk-load")
+                : Files.createTempDirectory(Paths.get(base), "bulk-load");
+        files = new ArrayList<>(fileCount);
+        byte[] content = new byte[fileSize];
+        for (int i = 0; i < fileCount; i++) {
+            ThreadLocalRandom.current().nextBytes(content);
+            Path subdir = Files.createDirectories(dir.resolve("d" + i / 1000));
+            files.add(Files.write(subdir.resolve("f" + i), content));
+        }
+        platformPool = Executors.newFixedThreadPool(platformThreads);
+        virtualLoader = new BulkFileLoader();
+        platformLoader = new BulkFileLoader(platformPool, BulkFileLoader.DEFAULT_PERMITS_PER_DEVICE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        virtualLoader.close();
+        platformLoader.close();
+        platformPool.shutdown();
+        new TreeDeleter().delete(dir);
+    }
+
+    @Benchmark
+    public long virtualThreads() throws IOException {
+        return totalSize(virtualLoader.loadAll(files));
+    }
+
+    @Benchmark
+    public long platformPool() throws IOException {
+        return totalSize(platformLoader.loadAll(files));
+    }
+
+    @Benchmark
+    public long sequential() throws IOException {
+        long total = 0;
+        for (Path file : files) total += Files.readAllBytes(file).length;
+        return total;
+    }
+
+    private static long totalSize(List<BulkFileLoader.Result> results) throws IOException {
+        long total = 0;
+        for (BulkFileLoader.Result result : results) total += result.bytes().length;
+        return total;
+    }
+}
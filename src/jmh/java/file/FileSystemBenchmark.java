@@ -0,0 +1,227 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the operations exercised by {@code FilesApiTest}, {@code FileIoTest} and {@code PathApiTest} against
+ * several file system providers in throughput mode, reporting ops/sec; {@link FileSystemLatencyBenchmark} runs the
+ * same operations in sample mode for the latency percentiles including p99, in microseconds. Run with
+ * {@code gradle jmh -Pjmh.includes=FileSystem}.
+ * <p>
+ * The tmpfs provider uses {@code /dev/shm} unless {@code -Dbench.tmpfs.dir} is set; the disk provider uses
+ * {@code java.io.tmpdir} unless {@code -Dbench.disk.dir} is set, which must not itself be on tmpfs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FileSystemBenchmark {
+    private static final String FILE_ONE_CONTENTS = "fileOneLine1\nfileOneLine2\n";
+    private static final List<String> LINES = Arrays.asList("lineOne", "lineTwo");
+    private static final int FILES_IN_DIR = 100;
+
+    public enum Provider {
+        JIMFS_UNIX, JIMFS_OSX, JIMFS_WINDOWS, DEFAULT_TMPFS, DEFAULT_DISK, ZIPFS
+    }
+
+    @Param({"JIMFS_UNIX", "JIMFS_OSX", "JIMFS_WINDOWS", "DEFAULT_TMPFS", "DEFAULT_DISK", "ZIPFS"})
+    private Provider provider;
+
+    private FileSystem fs;
+    private Path base;
+    private Path zipFile;
+    private Path fileOne;
+    private Path dirOne;
+    private Path scratchFile;
+    private Path copyTarget;
+    private Path moveTarget;
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        base = openBase();
+        fileOne = Files.write(base.resolve("fileOne.txt"), FILE_ONE_CONTENTS.getBytes(StandardCharsets.UTF_8));
+        dirOne = Files.createDirectory(base.resolve("dirOne"));
+        for (int i = 0; i < FILES_IN_DIR; i++) Files.createFile(dirOne.resolve("file" + i + ".txt"));
+        scratchFile = base.resolve("scratch.txt");
+        copyTarget = base.resolve("fileOneCopy.txt");
+        moveTarget = base.resolve("fileOneMoved.txt");
+        path = base.resolve("partOne").resolve("partTwo").resolve("partThree");
+    }
+
+    private Path openBase() throws IOException {
+        switch (provider) {
+            case JIMFS_UNIX:
+                return jimfsBase(Configuration.unix());
+            case JIMFS_OSX:
+                return jimfsBase(Configuration.osX());
+            case JIMFS_WINDOWS:
+                return jimfsBase(Configuration.windows());
+            case DEFAULT_TMPFS:
+                return Files.createTempDirectory(Paths.get(System.getProperty("bench.tmpfs.dir", "/dev/shm")), "fs");
+            case DEFAULT_DISK:
+                String diskDir = System.getProperty("bench.disk.dir", System.getProperty("java.io.tmpdir"));
+                return Files.createTempDirectory(Paths.get(diskDir), "fs");
+            case ZIPFS:
+                zipFile = Files.createTempFile("fs", ".zip");
+                Files.delete(zipFile);
+                fs = FileSystems.newFileSystem(URI.create("jar:" + zipFile.toUri()),
+                        Collections.singletonMap("create", "true"));
+                return Files.createDirectory(fs.getPath("/bench"));
+            default:
+                throw new IllegalArgumentException("Unknown provider: " + provider);
+        }
+    }
+
+    private Path jimfsBase(Configuration configuration) throws IOException {
+        fs = Jimfs.newFileSystem(configuration);
+        return Files.createDirectory(fs.getPath("bench")).toAbsolutePath();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (fs == null || provider == Provider.ZIPFS) {
+            try (Stream<Path> paths = Files.walk(base)) {
+                for (Path p : paths.sorted(Collections.reverseOrder()).collect(Collectors.toList())) Files.delete(p);
+            }
+        }
+        if (fs != null) fs.close();
+        if (zipFile != null) Files.deleteIfExists(zipFile);
+    }
+
+    @Benchmark
+    public boolean exists() {
+        return Files.exists(fileOne);
+    }
+
+    @Benchmark
+    public boolean isRegularFile() {
+        return Files.isRegularFile(fileOne);
+    }
+
+    @Benchmark
+    public boolean isDirectory() {
+        return Files.isDirectory(dirOne);
+    }
+
+    @Benchmark
+    public Object getAttribute() throws IOException {
+        return Files.getAttribute(fileOne, "lastModifiedTime");
+    }
+
+    @Benchmark
+    public void createAndDeleteFile() throws IOException {
+        Files.createFile(scratchFile);
+        Files.delete(scratchFile);
+    }
+
+    @Benchmark
+    public Path copyFileReplacingExisting() throws IOException {
+        return Files.copy(fileOne, copyTarget, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Benchmark
+    public Path moveFileAndBack() throws IOException {
+        Files.move(fileOne, moveTarget);
+        return Files.move(moveTarget, fileOne);
+    }
+
+    @Benchmark
+    public long listDirectory() throws IOException {
+        try (Stream<Path> stream = Files.list(dirOne)) {
+            return stream.count();
+        }
+    }
+
+    @Benchmark
+    public long findRegularFiles() throws IOException {
+        try (Stream<Path> stream = Files.find(base, 2, (p, attr) -> attr.isRegularFile())) {
+            return stream.count();
+        }
+    }
+
+    @Benchmark
+    public byte[] readAllBytes() throws IOException {
+        return Files.readAllBytes(fileOne);
+    }
+
+    @Benchmark
+    public List<String> readAllLines() throws IOException {
+        return Files.readAllLines(fileOne, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<String> readLinesViaStream() throws IOException {
+        try (Stream<String> stream = Files.lines(fileOne, StandardCharsets.UTF_8)) {
+            return stream.sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Benchmark
+    public Path writeAllLines() throws IOException {
+        return Files.write(scratchFile, LINES, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void writeLinesViaBufferedWriter() throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(scratchFile, StandardCharsets.UTF_8)) {
+            for (String line : LINES) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+    }
+
+    @Benchmark
+    public Path resolvePath() {
+        return base.resolve("partOne").resolve("partTwo");
+    }
+
+    @Benchmark
+    public Path normalizePath() {
+        return path.resolve("..").resolve(".").resolve("partFour").normalize();
+    }
+
+    @Benchmark
+    public Path relativizePath() {
+        return dirOne.relativize(path);
+    }
+
+    @Benchmark
+    public Path subpath() {
+        return path.subpath(1, 3);
+    }
+}
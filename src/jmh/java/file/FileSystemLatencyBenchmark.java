@@ -0,0 +1,16 @@
+package file;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The operations of {@link FileSystemBenchmark} in sample mode, reporting latency percentiles in microseconds. Run
+ * with {@code gradle jmh -Pjmh.includes=FileSystemLatencyBenchmark}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileSystemLatencyBenchmark extends FileSystemBenchmark {
+}
@@ -0,0 +1,94 @@
+package file;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares {@link MappedLines} with {@link Files#lines(Path)} and {@link BufferedReader#readLine()}, sequentially
+ * and in parallel. Run with {@code gradle jmh -Pjmh.includes=LineStreamBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LineStreamBenchmark {
+    @Param({"64", "1024"})
+    private int fileSizeMb;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("line-stream", ".txt");
+        long targetSize = fileSizeMb * 1024L * 1024L;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long written = 0, i = 0; written < targetSize; i++) {
+                String line = "line " + i + " of the benchmark file with some padding to look like a log entry";
+                writer.write(line);
+                writer.newLine();
+                written += line.length() + 1;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long mappedLines() throws IOException {
+        try (Stream<String> lines = MappedLines.lines(file, StandardCharsets.UTF_8)) {
+            return totalLength(lines);
+        }
+    }
+
+    @Benchmark
+    public long filesLines() throws IOException {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return totalLength(lines);
+        }
+    }
+
+    /**
+     * Single threaded regardless of {@link #parallel}; serves as the baseline.
+     */
+    @Benchmark
+    public long bufferedReaderReadLine() throws IOException {
+        long total = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) total += line.length();
+        }
+        return total;
+    }
+
+    private long totalLength(Stream<String> lines) {
+        return (parallel ? lines.parallel() : lines).mapToLong(String::length).sum();
+    }
+}
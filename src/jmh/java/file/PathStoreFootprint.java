@@ -0,0 +1,43 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the retained heap of {@link PathStore} with a {@code List<Path>} holding the same paths, for the default
+ * file system and Jimfs. Run with {@code gradle pathStoreFootprint}.
+ */
+public class PathStoreFootprint {
+    private static final int[] PATH_COUNTS = {10_000, 100_000, 1_000_000};
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-10s %10s %16s %16s %8s%n", "fs", "paths", "List<Path> B", "PathStore B", "ratio");
+        try (FileSystem jimfs = Jimfs.newFileSystem(Configuration.unix())) {
+            for (int count : PATH_COUNTS) {
+                report("default", FileSystems.getDefault(), count);
+                report("jimfs", jimfs, count);
+            }
+        }
+    }
+
+    private static void report(String name, FileSystem fs, int count) {
+        List<Path> paths = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            paths.add(fs.getPath("/data", "shard" + (i % 16), "dir" + (i % 1000), "file" + i + ".txt"));
+        PathStore store = new PathStore();
+        paths.forEach(store::intern);
+
+        long listBytes = GraphLayout.parseInstance(paths).totalSize();
+        long storeBytes = GraphLayout.parseInstance(store).totalSize();
+        System.out.printf("%-10s %10d %16d %16d %8.2f%n", name, count, listBytes, storeBytes,
+                (double) listBytes / storeBytes);
+    }
+}
@@ -0,0 +1,133 @@
+package classpath;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reads resource streams allocating little more than the result. The length of a resource is taken from the file or
+ * its {@link URLConnection}, which for jar entries reports the size recorded in the {@code ZipEntry}, so large
+ * resources are read straight into an array of the right size. Resources of unknown length or smaller than 64 KB are
+ * read into a scratch buffer borrowed from a striped pool, which also works for virtual threads, and copied out once.
+ */
+public final class ResourceBytes {
+    private static final int SCRATCH_SIZE = 64 * 1024;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    private static final AtomicReferenceArray<byte[]> SCRATCH_STRIPES =
+            new AtomicReferenceArray<>(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) * 2);
+
+    private ResourceBytes() {
+    }
+
+    public static byte[] read(URL resource) throws IOException {
+        if (resource.getProtocol().equals("file")) {
+            try (FileChannel channel = FileChannel.open(toPath(resource))) {
+                return read(Channels.newInputStream(channel), channel.size());
+            }
+        }
+        URLConnection connection = resource.openConnection();
+        try (InputStream is = connection.getInputStream()) {
+            return read(is, connection.getContentLengthLong());
+        }
+    }
+
+    public static String readString(URL resource, Charset charset) throws IOException {
+        if (resource.getProtocol().equals("file")) {
+            try (FileChannel channel = FileChannel.open(toPath(resource))) {
+                return readString(Channels.newInputStream(channel), channel.size(), charset);
+            }
+        }
+        URLConnection connection = resource.openConnection();
+        try (InputStream is = connection.getInputStream()) {
+            return readString(is, connection.getContentLengthLong(), charset);
+        }
+    }
+
+    /**
+     * Bypasses the {@code file:} URL connection, which guesses a content type when asked for the length.
+     */
+    private static Path toPath(URL resource) {
+        try {
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid resource URL: " + resource, e);
+        }
+    }
+
+    /**
+     * Reads {@code is} to the end. A negative {@code sizeHint} means the length is unknown; a wrong hint costs an
+     * extra copy but is otherwise harmless.
+     */
+    public static byte[] read(InputStream is, long sizeHint) throws IOException {
+        byte[] scratch = acquireScratch();
+        try {
+            Content content = readFully(is, sizeHint, scratch);
+            if (content.bytes != scratch && content.length == content.bytes.length) return content.bytes;
+            return Arrays.copyOf(content.bytes, content.length);
+        } finally {
+            releaseScratch(scratch);
+        }
+    }
+
+    public static String readString(InputStream is, long sizeHint, Charset charset) throws IOException {
+        byte[] scratch = acquireScratch();
+        try {
+            Content content = readFully(is, sizeHint, scratch);
+            return new String(content.bytes, 0, content.length, charset);
+        } finally {
+            releaseScratch(scratch);
+        }
+    }
+
+    private static Content readFully(InputStream is, long sizeHint, byte[] scratch) throws IOException {
+        if (sizeHint > MAX_ARRAY_SIZE) throw new IOException("Resource too large for an array: " + sizeHint);
+        byte[] buffer = sizeHint > scratch.length ? new byte[(int) sizeHint] : scratch;
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                int next = is.read();
+                if (next < 0) break;
+                if (length == MAX_ARRAY_SIZE) throw new IOException("Resource too large for an array");
+                buffer = Arrays.copyOf(buffer, (int) Math.min(MAX_ARRAY_SIZE, Math.max(2L * length, SCRATCH_SIZE)));
+                buffer[length++] = (byte) next;
+            }
+            int read = is.read(buffer, length, buffer.length - length);
+            if (read < 0) break;
+            length += read;
+        }
+        return new Content(buffer, length);
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 16)) & (SCRATCH_STRIPES.length() - 1);
+    }
+
+    private static byte[] acquireScratch() {
+        byte[] scratch = SCRATCH_STRIPES.getAndSet(stripe(), null);
+        return scratch != null ? scratch : new byte[SCRATCH_SIZE];
+    }
+
+    private static void releaseScratch(byte[] scratch) {
+        SCRATCH_STRIPES.compareAndSet(stripe(), null, scratch);
+    }
+
+    private static class Content {
+        final byte[] bytes;
+        final int length;
+
+        Content(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
+}
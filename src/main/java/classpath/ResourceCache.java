@@ -0,0 +1,201 @@
+package classpath;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches classpath resource bytes keyed by their {@link ClassLoader} resource name, evicting least recently used
+ * entries once the cached bytes exceed a weight limit. Evicted entries can optionally be kept in a soft-reference
+ * tier that the garbage collector may reclaim under memory pressure. A resource heavier than the whole limit bypasses
+ * the LRU tier: it goes straight to the soft tier if there is one, and is otherwise re-read on every call. Such
+ * bypasses are counted in {@link Stats#bypasses()}.
+ * <p>
+ * Names follow the same rules as the JDK lookups: {@link #get(Class, String)} resolves names relative to the package
+ * of the class unless they start with a slash, while {@link #get(String)} takes names without a leading slash and
+ * never finds names that start with one. Both lookups key the cache by the absolute name without a leading slash.
+ */
+public class ResourceCache {
+    private final ClassLoader classLoader;
+    private final long maxWeight;
+    private final boolean softTier;
+
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, SoftEntry> softEntries = new HashMap<>();
+    private final ReferenceQueue<byte[]> clearedSoftEntries = new ReferenceQueue<>();
+    private long weight;
+    private long hits;
+    private long softHits;
+    private long misses;
+    private long evictions;
+    private long bypasses;
+
+    public ResourceCache(ClassLoader classLoader, long maxWeight, boolean softTier) {
+        if (maxWeight < 0) throw new IllegalArgumentException("maxWeight must not be negative: " + maxWeight);
+        this.classLoader = classLoader;
+        this.maxWeight = maxWeight;
+        this.softTier = softTier;
+    }
+
+    /**
+     * Resolves {@code name} like {@link Class#getResource(String)} but loads it through this cache's class loader.
+     */
+    public ByteBuffer get(Class<?> anchor, String name) throws IOException {
+        return get(resolveClassResourceName(anchor, name));
+    }
+
+    /**
+     * Looks up {@code name} like {@link ClassLoader#getResource(String)}, returning {@code null} if it is not found.
+     */
+    public ByteBuffer get(String name) throws IOException {
+        if (name.startsWith("/")) return null;
+
+        byte[] bytes = lookup(name);
+        if (bytes == null) {
+            bytes = load(name);
+            if (bytes == null) return null;
+            store(name, bytes);
+        }
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    static String resolveClassResourceName(Class<?> anchor, String name) {
+        if (name.startsWith("/")) return name.substring(1);
+        String packageName = anchor.getPackageName();
+        return packageName.isEmpty() ? name : packageName.replace('.', '/') + "/" + name;
+    }
+
+    private synchronized byte[] lookup(String name) {
+        byte[] bytes = entries.get(name);
+        if (bytes != null) {
+            hits++;
+            return bytes;
+        }
+        purgeClearedSoftEntries();
+        SoftEntry softEntry = softEntries.remove(name);
+        bytes = softEntry == null ? null : softEntry.get();
+        if (bytes != null) {
+            softHits++;
+            put(name, bytes);
+            return bytes;
+        }
+        misses++;
+        return null;
+    }
+
+    private byte[] load(String name) throws IOException {
+        URL resource = classLoader.getResource(name);
+        return resource == null ? null : ResourceBytes.read(resource);
+    }
+
+    private synchronized void store(String name, byte[] bytes) {
+        if (!entries.containsKey(name)) put(name, bytes);
+    }
+
+    private void put(String name, byte[] bytes) {
+        if (bytes.length > maxWeight) {
+            bypasses++;
+            if (softTier) softEntries.put(name, new SoftEntry(name, bytes));
+            return;
+        }
+        entries.put(name, bytes);
+        weight += bytes.length;
+        evictOverweight();
+    }
+
+    private void evictOverweight() {
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight) {
+            Map.Entry<String, byte[]> entry = eldest.next();
+            eldest.remove();
+            weight -= entry.getValue().length;
+            evictions++;
+            if (softTier) softEntries.put(entry.getKey(), new SoftEntry(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private void purgeClearedSoftEntries() {
+        Reference<? extends byte[]> cleared;
+        while ((cleared = clearedSoftEntries.poll()) != null) {
+            SoftEntry softEntry = (SoftEntry) cleared;
+            softEntries.remove(softEntry.name, softEntry);
+        }
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, softHits, misses, evictions, bypasses, entries.size(), weight);
+    }
+
+    private class SoftEntry extends SoftReference<byte[]> {
+        private final String name;
+
+        SoftEntry(String name, byte[] bytes) {
+            super(bytes, clearedSoftEntries);
+            this.name = name;
+        }
+    }
+
+    public static class Stats {
+        private final long hits;
+        private final long softHits;
+        private final long misses;
+        private final long evictions;
+        private final long bypasses;
+        private final int size;
+        private final long weight;
+
+        Stats(long hits, long softHits, long misses, long evictions, long bypasses, int size, long weight) {
+            this.hits = hits;
+            this.softHits = softHits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.bypasses = bypasses;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        public long hits() {
+            return hits;
+        }
+
+        public long softHits() {
+            return softHits;
+        }
+
+        public long misses() {
+            return misses;
+        }
+
+        public long evictions() {
+            return evictions;
+        }
+
+        /**
+         * Number of times a resource heavier than the weight limit was kept out of the LRU tier.
+         */
+        public long bypasses() {
+            return bypasses;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long weight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hits + ", softHits=" + softHits + ", misses=" + misses + ", evictions=" + evictions
+                    + ", bypasses=" + bypasses + ", size=" + size + ", weight=" + weight + "}";
+        }
+    }
+}
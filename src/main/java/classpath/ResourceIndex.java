@@ -0,0 +1,212 @@
+package classpath;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index from resource name to the classpath entry that contains it, built once by scanning every directory and jar
+ * of a class loader's classpath in parallel. Lookups that miss the index fall back to the class loader, so resources
+ * the index cannot see (e.g. from parent loaders or manifest {@code Class-Path} jars) are still found.
+ */
+public class ResourceIndex {
+    private final ClassLoader fallback;
+    private final List<URI> entryBases;
+    private final Map<String, Integer> entryByName;
+    private final String[] sortedNames;
+
+    private ResourceIndex(ClassLoader fallback, List<URI> entryBases, Map<String, Integer> entryByName) {
+        this.fallback = fallback;
+        this.entryBases = entryBases;
+        this.entryByName = entryByName;
+        this.sortedNames = entryByName.keySet().toArray(new String[0]);
+        Arrays.sort(sortedNames);
+    }
+
+    /**
+     * Indexes the URLs of a {@link URLClassLoader}, or the {@code java.class.path} entries for any other loader.
+     */
+    public static ResourceIndex build(ClassLoader classLoader) throws IOException {
+        return build(classLoader, classpathEntries(classLoader));
+    }
+
+    public static ResourceIndex build(ClassLoader fallback, List<Path> classpathEntries) throws IOException {
+        List<Path> entries = new ArrayList<>(classpathEntries);
+        List<List<String>> namesPerEntry;
+        try {
+            namesPerEntry = IntStream.range(0, entries.size()).parallel()
+                    .mapToObj(i -> scan(entries.get(i)))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        List<URI> bases = new ArrayList<>(entries.size());
+        Map<String, Integer> entryByName = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            bases.add(baseUri(entries.get(i)));
+            for (String name : namesPerEntry.get(i)) entryByName.putIfAbsent(name, i);
+        }
+        return new ResourceIndex(fallback, bases, entryByName);
+    }
+
+    private static List<Path> classpathEntries(ClassLoader classLoader) {
+        if (classLoader instanceof URLClassLoader) {
+            return Arrays.stream(((URLClassLoader) classLoader).getURLs())
+                    .filter(url -> "file".equals(url.getProtocol()))
+                    .map(ResourceIndex::toPath)
+                    .collect(Collectors.toList());
+        }
+        return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> !entry.isEmpty())
+                .map(Paths::get)
+                .collect(Collectors.toList());
+    }
+
+    private static Path toPath(URL url) {
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid classpath URL: " + url, e);
+        }
+    }
+
+    private static List<String> scan(Path entry) {
+        try {
+            if (Files.isDirectory(entry)) return scanDirectory(entry);
+            if (Files.isRegularFile(entry)) return scanJar(entry);
+            return Collections.emptyList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> scanDirectory(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile)
+                    .map(path -> dir.relativize(path).toString().replace(File.separatorChar, '/'))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> scanJar(Path jar) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            return zip.stream()
+                    .filter(entry -> !entry.isDirectory())
+                    .map(ZipEntry::getName)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static URI baseUri(Path entry) {
+        URI uri = entry.toUri();
+        return Files.isDirectory(entry) ? uri : URI.create("jar:" + uri + "!/");
+    }
+
+    /**
+     * Same contract as {@link ClassLoader#getResource(String)}, including never finding names with a root slash.
+     */
+    public URL getResource(String name) {
+        if (name.startsWith("/")) return null;
+        Integer entry = entryByName.get(name);
+        if (entry == null) return fallback.getResource(name);
+        try {
+            return URI.create(entryBases.get(entry) + new URI(null, null, name, null).getRawPath()).toURL();
+        } catch (MalformedURLException | URISyntaxException e) {
+            throw new IllegalStateException("Cannot build URL for resource: " + name, e);
+        }
+    }
+
+    public boolean contains(String name) {
+        return entryByName.containsKey(name);
+    }
+
+    public int size() {
+        return sortedNames.length;
+    }
+
+    /**
+     * Indexed resource names starting with {@code prefix}, in sorted order.
+     */
+    public List<String> namesWithPrefix(String prefix) {
+        int from = lowerBound(prefix);
+        int to = from;
+        while (to < sortedNames.length && sortedNames[to].startsWith(prefix)) to++;
+        return Collections.unmodifiableList(Arrays.asList(sortedNames).subList(from, to));
+    }
+
+    /**
+     * Indexed resource names matching a glob where {@code *} and {@code ?} stay within one path segment and
+     * {@code **} crosses segments, in sorted order.
+     */
+    public List<String> namesMatching(String glob) {
+        Glob parsed = Glob.parse(glob);
+        List<String> candidates = namesWithPrefix(parsed.literalPrefix);
+        return candidates.stream().filter(name -> parsed.pattern.matcher(name).matches()).collect(Collectors.toList());
+    }
+
+    private int lowerBound(String key) {
+        int index = Arrays.binarySearch(sortedNames, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * A glob split into the literal text before its first wildcard and a pattern for the whole glob, both from one
+     * pass so that prefix pruning never skips a name the pattern matches. A backslash makes the next character
+     * literal; every other character except {@code *} and {@code ?} is literal too.
+     */
+    private static class Glob {
+        private final String literalPrefix;
+        private final Pattern pattern;
+
+        private Glob(String literalPrefix, Pattern pattern) {
+            this.literalPrefix = literalPrefix;
+            this.pattern = pattern;
+        }
+
+        static Glob parse(String glob) {
+            StringBuilder regex = new StringBuilder();
+            StringBuilder prefix = new StringBuilder();
+            boolean inPrefix = true;
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    regex.append(".*");
+                    inPrefix = false;
+                    i++;
+                } else if (c == '*') {
+                    regex.append("[^/]*");
+                    inPrefix = false;
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                    inPrefix = false;
+                } else {
+                    if (c == '\\' && i + 1 < glob.length()) c = glob.charAt(++i);
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                    if (inPrefix) prefix.append(c);
+                }
+            }
+            return new Glob(prefix.toString(), Pattern.compile(regex.toString()));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package classpath;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Resources packed at build time into one memory-mapped blob, so that they can be loaded without a class loader
+ * searching every classpath entry. The blob starts with a header and a table of fixed-size entries sorted by the
+ * unsigned UTF-8 bytes of the resource names, followed by the name bytes and the contiguous payloads:
+ * <pre>
+ * header:  magic "RPAK", version, entry count, total size             (4 ints)
+ * entry:   name offset, name length, payload offset, payload length    (4 ints each)
+ * names:   UTF-8 bytes
+ * payload: resource bytes
+ * </pre>
+ * Names are looked up by binary search over the mapped table, comparing bytes in place. The blob is written by
+ * {@link #main(String[])}, which the {@code packResources} Gradle task runs.
+ */
+public class ResourcePack {
+    private static final int MAGIC = 0x5250414b;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16;
+
+    private final ByteBuffer blob;
+    private final int size;
+
+    private ResourcePack(ByteBuffer blob) throws IOException {
+        if (blob.limit() < HEADER_SIZE || blob.getInt(0) != MAGIC) throw new IOException("Not a resource pack");
+        if (blob.getInt(4) != VERSION) throw new IOException("Unsupported resource pack version " + blob.getInt(4));
+        if (blob.getInt(12) != blob.limit()) throw new IOException("Truncated resource pack");
+        this.blob = blob;
+        this.size = blob.getInt(8);
+    }
+
+    public static ResourcePack open(Path blob) throws IOException {
+        try (FileChannel channel = FileChannel.open(blob)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Resource pack too large: " + blob);
+            return new ResourcePack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns a read-only view of the resource's bytes, or {@code null} if the pack does not contain it. Names follow
+     * {@link ClassLoader#getResource(String)} and have no leading slash.
+     */
+    public ByteBuffer get(String name) {
+        int entry = find(name.getBytes(StandardCharsets.UTF_8));
+        if (entry < 0) return null;
+        int offset = blob.getInt(entryOffset(entry) + 8);
+        int length = blob.getInt(entryOffset(entry) + 12);
+        return blob.slice(offset, length).asReadOnlyBuffer();
+    }
+
+    public boolean contains(String name) {
+        return find(name.getBytes(StandardCharsets.UTF_8)) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * All names in the pack, in unsigned UTF-8 byte order.
+     */
+    public List<String> names() {
+        List<String> names = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            byte[] name = new byte[blob.getInt(entryOffset(i) + 4)];
+            blob.get(blob.getInt(entryOffset(i)), name);
+            names.add(new String(name, StandardCharsets.UTF_8));
+        }
+        return names;
+    }
+
+    private int find(byte[] name) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareName(mid, name);
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private int compareName(int entry, byte[] name) {
+        int offset = blob.getInt(entryOffset(entry));
+        int length = blob.getInt(entryOffset(entry) + 4);
+        int common = Math.min(length, name.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.toUnsignedInt(blob.get(offset + i)) - Byte.toUnsignedInt(name[i]);
+            if (cmp != 0) return cmp;
+        }
+        return length - name.length;
+    }
+
+    private static int entryOffset(int entry) {
+        return HEADER_SIZE + entry * ENTRY_SIZE;
+    }
+
+    /**
+     * Packs the regular files under the given directories and jars into {@code blob}, returning the number of
+     * resources packed. As on a classpath, the first root containing a name wins.
+     */
+    public static int write(Path blob, List<Path> roots) throws IOException {
+        Map<byte[], Path> resources = new TreeMap<>(Arrays::compareUnsigned);
+        List<FileSystem> jars = new ArrayList<>();
+        try {
+            for (Path root : roots) {
+                if (!Files.isDirectory(root)) {
+                    FileSystem jar = FileSystems.newFileSystem(root, (ClassLoader) null);
+                    jars.add(jar);
+                    root = jar.getPath("/");
+                }
+                collect(root, resources);
+            }
+            writeBlob(blob, resources);
+            return resources.size();
+        } finally {
+            for (FileSystem jar : jars) jar.close();
+        }
+    }
+
+    private static void collect(Path root, Map<byte[], Path> resources) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            resources.putIfAbsent(name.getBytes(StandardCharsets.UTF_8), file);
+        }
+    }
+
+    private static void writeBlob(Path blob, Map<byte[], Path> resources) throws IOException {
+        long namesSize = 0;
+        long payloadSize = 0;
+        for (Map.Entry<byte[], Path> resource : resources.entrySet()) {
+            namesSize += resource.getKey().length;
+            payloadSize += Files.size(resource.getValue());
+        }
+        long total = HEADER_SIZE + (long) resources.size() * ENTRY_SIZE + namesSize + payloadSize;
+        if (total > Integer.MAX_VALUE) throw new IOException("Resources too large for one pack: " + total + " bytes");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(blob)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(resources.size());
+            out.writeInt((int) total);
+            int nameOffset = HEADER_SIZE + resources.size() * ENTRY_SIZE;
+            int payloadOffset = (int) (nameOffset + namesSize);
+            for (Map.Entry<byte[], Path> resource : resources.entrySet()) {
+                int payloadLength = (int) Files.size(resource.getValue());
+                out.writeInt(nameOffset);
+                out.writeInt(resource.getKey().length);
+                out.writeInt(payloadOffset);
+                out.writeInt(payloadLength);
+                nameOffset += resource.getKey().length;
+                payloadOffset += payloadLength;
+            }
+            for (byte[] name : resources.keySet()) out.write(name);
+            for (Path file : resources.values()) copy(file, out);
+        }
+    }
+
+    private static void copy(Path file, OutputStream out) throws IOException {
+        long expected = Files.size(file);
+        if (Files.copy(file, out) != expected) throw new IOException("Resource changed while packing: " + file);
+    }
+
+    /**
+     * Usage: {@code ResourcePack <blob> <directory or jar>...}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ResourcePack <blob> <directory or jar>...");
+            System.exit(2);
+        }
+        List<Path> roots = Arrays.stream(args, 1, args.length).map(Paths::get).collect(Collectors.toList());
+        Path blob = Paths.get(args[0]);
+        Files.createDirectories(blob.toAbsolutePath().getParent());
+        int count = write(blob, roots);
+        System.out.println("Packed " + count + " resources into " + blob);
+    }
+}
@@ -0,0 +1,122 @@
+package classpath;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads classpath resources as read-only buffers. {@code file:} resources are memory-mapped, while {@code jar:}
+ * resources are read through a zip file system that is opened once per jar and reused until {@link #close()}.
+ * A zip file system that was already open, for example by another component, is borrowed: it is used while it stays
+ * open but never closed by this reader.
+ */
+public class ResourceReader implements Closeable {
+    private static final String JAR_ENTRY_SEPARATOR = "!/";
+
+    private final ConcurrentMap<URI, FileSystem> jarFileSystems = new ConcurrentHashMap<>();
+    private final Set<FileSystem> ownedFileSystems = ConcurrentHashMap.newKeySet();
+
+    public ByteBuffer read(URL resource) throws IOException {
+        try {
+            return read(resource.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid resource URL: " + resource, e);
+        }
+    }
+
+    public ByteBuffer read(URI resource) throws IOException {
+        switch (resource.getScheme()) {
+            case "file":
+                return map(Paths.get(resource));
+            case "jar":
+                return readJarEntry(resource);
+            default:
+                throw new IllegalArgumentException("Unsupported resource scheme: " + resource);
+        }
+    }
+
+    public CharSequence readChars(URI resource, Charset charset) throws IOException {
+        CharBuffer chars = charset.decode(read(resource));
+        return chars.asReadOnlyBuffer();
+    }
+
+    private ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("Resource too large to map into a single buffer: " + file);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private ByteBuffer readJarEntry(URI resource) throws IOException {
+        String uri = resource.getRawSchemeSpecificPart();
+        int separator = uri.indexOf(JAR_ENTRY_SEPARATOR);
+        if (separator < 0)
+            throw new IllegalArgumentException("Jar resource without entry: " + resource);
+        URI jar = URI.create("jar:" + uri.substring(0, separator));
+        String entry = URI.create(uri.substring(separator + 1)).getPath();
+
+        byte[] bytes = Files.readAllBytes(jarFileSystem(jar).getPath(entry));
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    FileSystem jarFileSystem(URI jar) throws IOException {
+        try {
+            FileSystem fs = jarFileSystems.computeIfAbsent(jar, this::openJarFileSystem);
+            if (fs.isOpen()) return fs;
+            // a borrowed file system was closed by its owner
+            jarFileSystems.remove(jar, fs);
+            return jarFileSystems.computeIfAbsent(jar, this::openJarFileSystem);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private FileSystem openJarFileSystem(URI jar) {
+        try {
+            FileSystem fs = FileSystems.newFileSystem(jar, Collections.emptyMap());
+            ownedFileSystems.add(fs);
+            return fs;
+        } catch (FileSystemAlreadyExistsException e) {
+            // borrowed, so not added to ownedFileSystems
+            return FileSystems.getFileSystem(jar);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        jarFileSystems.clear();
+        IOException failure = null;
+        for (FileSystem fs : ownedFileSystems) {
+            try {
+                fs.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        ownedFileSystems.clear();
+        if (failure != null) throw failure;
+    }
+}
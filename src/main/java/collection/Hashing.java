@@ -0,0 +1,49 @@
+package collection;
+
+/**
+ * Table sizing and hash mixing shared by the open-addressing maps of this package.
+ */
+final class Hashing {
+    static final float DEFAULT_LOAD_FACTOR = 0.5f;
+    static final int DEFAULT_EXPECTED_SIZE = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Hashing() {
+    }
+
+    static void checkLoadFactor(float loadFactor) {
+        if (!(loadFactor > 0 && loadFactor < 1)) throw new IllegalArgumentException("loadFactor: " + loadFactor);
+    }
+
+    /**
+     * Smallest power of two table that holds {@code expectedSize} entries within {@code loadFactor}.
+     */
+    static int capacity(int expectedSize, float loadFactor) {
+        if (expectedSize < 0) throw new IllegalArgumentException("expectedSize: " + expectedSize);
+        long needed = (long) Math.ceil(expectedSize / (double) loadFactor) + 1;
+        if (needed > MAX_CAPACITY) throw new IllegalStateException("Too many entries: " + expectedSize);
+        return Math.max(2, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    /**
+     * Number of entries that trigger a resize; always leaves at least one free slot to end probe sequences.
+     */
+    static int threshold(int capacity, float loadFactor) {
+        return Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    static int grownCapacity(int capacity) {
+        if (capacity == MAX_CAPACITY) throw new IllegalStateException("Map is full");
+        return capacity * 2;
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,317 @@
+package collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Map from {@code int} to objects without boxing the keys. Uses open addressing with linear probing like
+ * {@link LongLongHashMap}, with key {@code 0} held outside the table. Values must not be {@code null}, so
+ * {@link #get(int)} returns {@code null} exactly for absent keys.
+ * <p>
+ * {@link #forEach(IntObjectConsumer)} and {@link #cursor()} iterate without allocating; {@link #asMap()} is a
+ * {@link Map} view with boxed keys. The map is not thread-safe, and must not be modified while iterating.
+ */
+public class IntObjectHashMap<V> {
+    private static final int FREE_KEY = 0;
+
+    private final float loadFactor;
+    private int[] keys;
+    private Object[] values;
+    private int threshold;
+    private int size;
+    private V freeKeyValue;
+    private Cursor cursor;
+
+    public IntObjectHashMap() {
+        this(Hashing.DEFAULT_EXPECTED_SIZE, Hashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * @param expectedSize number of entries the map holds without resizing
+     * @param loadFactor   fraction of slots that may be used before the table doubles, between 0 and 1
+     */
+    public IntObjectHashMap(int expectedSize, float loadFactor) {
+        Hashing.checkLoadFactor(loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(Hashing.capacity(expectedSize, loadFactor));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = Hashing.threshold(capacity, loadFactor);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == FREE_KEY) return freeKeyValue;
+        return (V) values[slot(key)];
+    }
+
+    public V getOrDefault(int key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Associates {@code value} with {@code key}, returning the previous value or {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        if (key == FREE_KEY) {
+            V previous = freeKeyValue;
+            freeKeyValue = value;
+            if (previous == null) size++;
+            return previous;
+        }
+        int slot = slot(key);
+        V previous = (V) values[slot];
+        values[slot] = value;
+        if (previous != null) return previous;
+        keys[slot] = key;
+        if (++size > threshold) rehash(Hashing.grownCapacity(keys.length));
+        return null;
+    }
+
+    /**
+     * Removes {@code key}, returning its value or {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == FREE_KEY) {
+            V previous = freeKeyValue;
+            freeKeyValue = null;
+            if (previous != null) size--;
+            return previous;
+        }
+        int slot = slot(key);
+        V previous = (V) values[slot];
+        if (previous == null) return null;
+        size--;
+        shiftBack(slot);
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, null);
+        freeKeyValue = null;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjectConsumer<? super V> action) {
+        if (freeKeyValue != null) action.accept(FREE_KEY, freeKeyValue);
+        int[] keys = this.keys;
+        Object[] values = this.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    /**
+     * The map's cursor, rewound to before the first entry. The same instance is returned on every call.
+     */
+    public Cursor cursor() {
+        if (cursor == null) cursor = new Cursor();
+        else cursor.rewind();
+        return cursor;
+    }
+
+    /**
+     * Slot holding {@code key}, or the free slot where it would be inserted.
+     */
+    private int slot(int key) {
+        int[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = Hashing.mix(key) & mask;
+        while (keys[slot] != FREE_KEY && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Frees {@code slot}, moving later entries of its probe run back so that every entry stays reachable.
+     */
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int free = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            int key = keys[next];
+            if (key == FREE_KEY) break;
+            int home = Hashing.mix(key) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = key;
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        keys[free] = FREE_KEY;
+        values[free] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key == FREE_KEY) continue;
+            int slot = Hashing.mix(key) & mask;
+            while (keys[slot] != FREE_KEY) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * A {@link Map} view backed by this map, with boxed keys. Its iterators do not support removal.
+     */
+    public Map<Integer, V> asMap() {
+        return new MapView();
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    /**
+     * Walks the entries in table order: {@code while (cursor.next()) use(cursor.key(), cursor.value());}
+     */
+    public class Cursor {
+        private static final int BEFORE_FIRST = -2;
+        private static final int AT_FREE_KEY = -1;
+        private int[] keys;
+        private Object[] values;
+        private int slot;
+
+        private Cursor() {
+            rewind();
+        }
+
+        private void rewind() {
+            keys = IntObjectHashMap.this.keys;
+            values = IntObjectHashMap.this.values;
+            slot = BEFORE_FIRST;
+        }
+
+        public boolean next() {
+            if (slot == BEFORE_FIRST && freeKeyValue != null) {
+                slot = AT_FREE_KEY;
+                return true;
+            }
+            int[] keys = this.keys;
+            int next = Math.max(slot + 1, 0);
+            while (next < keys.length && keys[next] == FREE_KEY) next++;
+            slot = Math.min(next, keys.length);
+            return slot < keys.length;
+        }
+
+        public int key() {
+            if (slot == AT_FREE_KEY) return FREE_KEY;
+            checkPosition();
+            return keys[slot];
+        }
+
+        @SuppressWarnings("unchecked")
+        public V value() {
+            if (slot == AT_FREE_KEY) return freeKeyValue;
+            checkPosition();
+            return (V) values[slot];
+        }
+
+        private void checkPosition() {
+            if (slot < 0 || slot >= keys.length) throw new NoSuchElementException();
+        }
+    }
+
+    private class MapView extends AbstractMap<Integer, V> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public V get(Object key) {
+            return key instanceof Integer ? IntObjectHashMap.this.get((Integer) key) : null;
+        }
+
+        @Override
+        public V put(Integer key, V value) {
+            return IntObjectHashMap.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return key instanceof Integer ? IntObjectHashMap.this.remove((Integer) key) : null;
+        }
+
+        @Override
+        public void clear() {
+            IntObjectHashMap.this.clear();
+        }
+
+        @Override
+        public Set<Entry<Integer, V>> entrySet() {
+            return new AbstractSet<Entry<Integer, V>>() {
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Iterator<Entry<Integer, V>> iterator() {
+                    Cursor entries = new Cursor();
+                    return new Iterator<Entry<Integer, V>>() {
+                        private boolean hasNext = entries.next();
+
+                        @Override
+                        public boolean hasNext() {
+                            return hasNext;
+                        }
+
+                        @Override
+                        public Entry<Integer, V> next() {
+                            if (!hasNext) throw new NoSuchElementException();
+                            Entry<Integer, V> entry = new SimpleImmutableEntry<>(entries.key(), entries.value());
+                            hasNext = entries.next();
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map from {@code long} to {@code long} without boxing. Entries are kept in two parallel arrays using open addressing
+ * with linear probing; removal shifts later entries back instead of leaving tombstones. Key {@code 0} marks a free
+ * slot, so an entry with that key is held outside the arrays. Lookups of absent keys return the map's
+ * {@link #missingValue()}.
+ * <p>
+ * {@link #forEach(LongLongConsumer)} and {@link #cursor()} iterate without allocating; {@link #asMap()} is a boxing
+ * {@link Map} view for APIs that need one. The map is not thread-safe, and must not be modified while iterating.
+ */
+public class LongLongHashMap {
+    private static final long FREE_KEY = 0;
+
+    private final float loadFactor;
+    private final long missingValue;
+    private long[] keys;
+    private long[] values;
+    private int threshold;
+    private int size;
+    private boolean hasFreeKey;
+    private long freeKeyValue;
+    private Cursor cursor;
+
+    public LongLongHashMap() {
+        this(Hashing.DEFAULT_EXPECTED_SIZE, Hashing.DEFAULT_LOAD_FACTOR, 0);
+    }
+
+    /**
+     * @param expectedSize number of entries the map holds without resizing
+     * @param loadFactor   fraction of slots that may be used before the table doubles, between 0 and 1
+     * @param missingValue value returned for absent keys
+     */
+    public LongLongHashMap(int expectedSize, float loadFactor, long missingValue) {
+        Hashing.checkLoadFactor(loadFactor);
+        this.loadFactor = loadFactor;
+        this.missingValue = missingValue;
+        allocate(Hashing.capacity(expectedSize, loadFactor));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        threshold = Hashing.threshold(capacity, loadFactor);
+    }
+
+    public long missingValue() {
+        return missingValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == FREE_KEY) return hasFreeKey;
+        return keys[slot(key)] != FREE_KEY;
+    }
+
+    public long get(long key) {
+        return getOrDefault(key, missingValue);
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == FREE_KEY) return hasFreeKey ? freeKeyValue : defaultValue;
+        int slot = slot(key);
+        return keys[slot] == FREE_KEY ? defaultValue : values[slot];
+    }
+
+    /**
+     * Associates {@code value} with {@code key}, returning the previous value or {@link #missingValue()}.
+     */
+    public long put(long key, long value) {
+        if (key == FREE_KEY) {
+            long previous = hasFreeKey ? freeKeyValue : missingValue;
+            freeKeyValue = value;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            return previous;
+        }
+        int slot = slot(key);
+        if (keys[slot] != FREE_KEY) {
+            long previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) rehash(Hashing.grownCapacity(keys.length));
+        return missingValue;
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, starting from {@link #missingValue()}, and returns the sum.
+     */
+    public long addTo(long key, long delta) {
+        if (key == FREE_KEY) {
+            long sum = (hasFreeKey ? freeKeyValue : missingValue) + delta;
+            put(key, sum);
+            return sum;
+        }
+        int slot = slot(key);
+        if (keys[slot] != FREE_KEY) return values[slot] += delta;
+        long sum = missingValue + delta;
+        keys[slot] = key;
+        values[slot] = sum;
+        if (++size > threshold) rehash(Hashing.grownCapacity(keys.length));
+        return sum;
+    }
+
+    /**
+     * Removes {@code key}, returning its value or {@link #missingValue()}.
+     */
+    public long remove(long key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) return missingValue;
+            hasFreeKey = false;
+            size--;
+            return freeKeyValue;
+        }
+        int slot = slot(key);
+        if (keys[slot] == FREE_KEY) return missingValue;
+        long previous = values[slot];
+        size--;
+        shiftBack(slot);
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    public void forEach(LongLongConsumer action) {
+        if (hasFreeKey) action.accept(FREE_KEY, freeKeyValue);
+        long[] keys = this.keys;
+        long[] values = this.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) action.accept(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * The map's cursor, rewound to before the first entry. The same instance is returned on every call.
+     */
+    public Cursor cursor() {
+        if (cursor == null) cursor = new Cursor();
+        else cursor.rewind();
+        return cursor;
+    }
+
+    /**
+     * Slot holding {@code key}, or the free slot where it would be inserted.
+     */
+    private int slot(long key) {
+        long[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = Hashing.mix(key) & mask;
+        while (keys[slot] != FREE_KEY && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Frees {@code slot}, moving later entries of its probe run back so that every entry stays reachable.
+     */
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int free = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            long key = keys[next];
+            if (key == FREE_KEY) break;
+            int home = Hashing.mix(key) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = key;
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        keys[free] = FREE_KEY;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == FREE_KEY) continue;
+            int slot = Hashing.mix(key) & mask;
+            while (keys[slot] != FREE_KEY) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * A {@link Map} view backed by this map. Keys and values are boxed on access; absent keys read as {@code null}
+     * even when {@link #missingValue()} is not. Its iterators do not support removal.
+     */
+    public Map<Long, Long> asMap() {
+        return new MapView();
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    /**
+     * Walks the entries in table order: {@code while (cursor.next()) use(cursor.key(), cursor.value());}
+     */
+    public class Cursor {
+        private static final int BEFORE_FIRST = -2;
+        private static final int AT_FREE_KEY = -1;
+        private long[] keys;
+        private long[] values;
+        private int slot;
+
+        private Cursor() {
+            rewind();
+        }
+
+        private void rewind() {
+            keys = LongLongHashMap.this.keys;
+            values = LongLongHashMap.this.values;
+            slot = BEFORE_FIRST;
+        }
+
+        public boolean next() {
+            if (slot == BEFORE_FIRST && hasFreeKey) {
+                slot = AT_FREE_KEY;
+                return true;
+            }
+            long[] keys = this.keys;
+            int next = Math.max(slot + 1, 0);
+            while (next < keys.length && keys[next] == FREE_KEY) next++;
+            slot = Math.min(next, keys.length);
+            return slot < keys.length;
+        }
+
+        public long key() {
+            if (slot == AT_FREE_KEY) return FREE_KEY;
+            checkPosition();
+            return keys[slot];
+        }
+
+        public long value() {
+            if (slot == AT_FREE_KEY) return freeKeyValue;
+            checkPosition();
+            return values[slot];
+        }
+
+        private void checkPosition() {
+            if (slot < 0 || slot >= keys.length) throw new NoSuchElementException();
+        }
+    }
+
+    private class MapView extends AbstractMap<Long, Long> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Long && LongLongHashMap.this.containsKey((Long) key);
+        }
+
+        @Override
+        public Long get(Object key) {
+            if (!(key instanceof Long) || !LongLongHashMap.this.containsKey((Long) key)) return null;
+            return LongLongHashMap.this.get((Long) key);
+        }
+
+        @Override
+        public Long put(Long key, Long value) {
+            Long previous = get(key);
+            LongLongHashMap.this.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public Long remove(Object key) {
+            Long previous = get(key);
+            if (previous != null) LongLongHashMap.this.remove((Long) key);
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            LongLongHashMap.this.clear();
+        }
+
+        @Override
+        public Set<Entry<Long, Long>> entrySet() {
+            return new AbstractSet<Entry<Long, Long>>() {
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Iterator<Entry<Long, Long>> iterator() {
+                    Cursor entries = new Cursor();
+                    return new Iterator<Entry<Long, Long>>() {
+                        private boolean hasNext = entries.next();
+
+                        @Override
+                        public boolean hasNext() {
+                            return hasNext;
+                        }
+
+                        @Override
+                        public Entry<Long, Long> next() {
+                            if (!hasNext) throw new NoSuchElementException();
+                            Entry<Long, Long> entry = new SimpleImmutableEntry<>(entries.key(), entries.value());
+                            hasNext = entries.next();
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package collection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Hash map from strings to strings kept off-heap in a memory-mapped file, so that it costs the garbage collector
+ * nothing and is usable right after {@link #openReadOnly(Path) reopening}, without being rebuilt. The file holds a
+ * header, a fixed-size slot table and an append-only log of UTF-8 records:
+ * <pre>
+ * header: magic "MSMP", version, slot count, log2 segment size, size, data end, used slots   (64 bytes)
+ * slots:  24-bit hash tag and 40-bit record offset + 1, 0 for a free slot                    (8 bytes each)
+ * data:   key length, value length (-1 once removed), key bytes, value bytes                  (per record)
+ * </pre>
+ * Slots use linear probing. The data log is mapped in segments as it grows, so the file grows a segment at a time,
+ * and a record never spans two segments. Numbers are stored in native byte order.
+ * Updating or removing a key appends a new record and repoints its slot; the old record is left in place.
+ * <p>
+ * One thread writes while any number of threads read. Records are written before their slot is published with
+ * release semantics, and readers load slots with acquire semantics, so a reader sees either the old or the new record
+ * in full. Other processes may {@link #openReadOnly(Path)} the file while it is being written. The slot table is sized
+ * at {@link #create(Path, int)} and does not grow: puts fail once {@link #MAX_LOAD_FACTOR} of the slots are used.
+ */
+public class MappedStringMap implements Closeable {
+    public static final float MAX_LOAD_FACTOR = 0.75f;
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+    private static final int MAGIC = 0x4d534d50;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SIZE_OFFSET = 16;
+    private static final int DATA_END_OFFSET = 24;
+    private static final int USED_SLOTS_OFFSET = 32;
+    private static final int SLOT_SIZE = 8;
+    private static final int MAX_SLOTS = 1 << 27;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int REMOVED = -1;
+    private static final int TAG_SHIFT = 40;
+    private static final long OFFSET_MASK = (1L << TAG_SHIFT) - 1;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final boolean readOnly;
+    private final MappedByteBuffer table;
+    private final int slots;
+    private final int segmentShift;
+    private final long dataStart;
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    private MappedStringMap(FileChannel channel, boolean readOnly, int slots, int segmentShift) throws IOException {
+        this.channel = channel;
+        this.readOnly = readOnly;
+        this.slots = slots;
+        this.segmentShift = segmentShift;
+        long tableSize = HEADER_SIZE + (long) slots * SLOT_SIZE;
+        this.dataStart = (tableSize + 4095) & ~4095L;
+        this.table = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE, 0,
+                tableSize);
+        table.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Creates an empty map in {@code file}, replacing any existing file, with slots for {@code expectedEntries} keys.
+     */
+    public static MappedStringMap create(Path file, int expectedEntries) throws IOException {
+        return create(file, expectedEntries, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize size of each mapped part of the data log, a power of two that bounds the size of a record
+     */
+    public static MappedStringMap create(Path file, int expectedEntries, int segmentSize) throws IOException {
+        if (segmentSize < RECORD_HEADER_SIZE || Integer.bitCount(segmentSize) != 1)
+            throw new IllegalArgumentException("segmentSize must be a power of two: " + segmentSize);
+        int slots = Hashing.capacity(expectedEntries, Hashing.DEFAULT_LOAD_FACTOR);
+        if (slots > MAX_SLOTS) throw new IllegalArgumentException("Too many entries: " + expectedEntries);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            MappedStringMap map = new MappedStringMap(channel, false, slots,
+                    Integer.numberOfTrailingZeros(segmentSize));
+            map.table.putInt(0, MAGIC);
+            map.table.putInt(4, VERSION);
+            map.table.putInt(8, slots);
+            map.table.putInt(12, map.segmentShift);
+            return map;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reopens a map for reading and writing.
+     */
+    public static MappedStringMap open(Path file) throws IOException {
+        return open(file, false);
+    }
+
+    /**
+     * Reopens a map for reading only. Only the header and slot table are mapped up front; data segments are mapped
+     * when first read.
+     */
+    public static MappedStringMap openReadOnly(Path file) throws IOException {
+        return open(file, true);
+    }
+
+    private static MappedStringMap open(Path file, boolean readOnly) throws IOException {
+        FileChannel channel = readOnly
+                ? FileChannel.open(file, StandardOpenOption.READ)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder());
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) throw new IOException("Not a mapped map: " + file);
+            }
+            if (header.getInt(0) != MAGIC) throw new IOException("Not a mapped map: " + file);
+            if (header.getInt(4) != VERSION) throw new IOException("Unsupported version " + header.getInt(4));
+            return new MappedStringMap(channel, readOnly, header.getInt(8), header.getInt(12));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) LONGS.getAcquire(table, SIZE_OFFSET));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(String key) {
+        return getBytes(utf8(key)) != null;
+    }
+
+    public String get(String key) {
+        byte[] bytes = utf8(key);
+        long record = find(bytes, hash(bytes));
+        if (record < 0) return null;
+        ByteBuffer segment = segment(record);
+        int position = position(record);
+        int valueLength = segment.getInt(position + 4);
+        if (valueLength == REMOVED) return null;
+        byte[] value = new byte[valueLength];
+        segment.get(position + RECORD_HEADER_SIZE + bytes.length, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a read-only view of the UTF-8 value of the UTF-8 encoded {@code key}, or {@code null} if it is absent.
+     * The view stays valid after later writes to the key.
+     */
+    public ByteBuffer getBytes(byte[] key) {
+        long record = find(key, hash(key));
+        if (record < 0) return null;
+        ByteBuffer segment = segment(record);
+        int position = position(record);
+        int valueLength = segment.getInt(position + 4);
+        if (valueLength == REMOVED) return null;
+        return segment.slice(position + RECORD_HEADER_SIZE + key.length, valueLength).asReadOnlyBuffer();
+    }
+
+    public void put(String key, String value) throws IOException {
+        put(utf8(key), utf8(value));
+    }
+
+    public synchronized void put(byte[] key, byte[] value) throws IOException {
+        write(key, value);
+    }
+
+    /**
+     * Removes {@code key}, returning whether it was present.
+     */
+    public boolean remove(String key) throws IOException {
+        return remove(utf8(key));
+    }
+
+    public synchronized boolean remove(byte[] key) throws IOException {
+        return write(key, null);
+    }
+
+    /**
+     * Appends a record for {@code key}, or a removal when {@code value} is {@code null}, and points the key's slot at
+     * it. Returns whether the key was present before.
+     */
+    private boolean write(byte[] key, byte[] value) throws IOException {
+        if (readOnly) throw new IllegalStateException("Map is read-only");
+        if (!channel.isOpen()) throw new ClosedChannelException();
+        long hash = hash(key);
+        int mask = slots - 1;
+        int slot = (int) hash & mask;
+        long tag = hash >>> TAG_SHIFT;
+        long entry;
+        while ((entry = slot(slot)) != 0) {
+            if (entry >>> TAG_SHIFT == tag && keyEquals((entry & OFFSET_MASK) - 1, key)) break;
+            slot = (slot + 1) & mask;
+        }
+        boolean present = entry != 0 && segment(record(entry)).getInt(position(record(entry)) + 4) != REMOVED;
+        if (!present && value == null) return false;
+        long usedSlots = (long) LONGS.get(table, USED_SLOTS_OFFSET);
+        if (entry == 0 && usedSlots + 1 > (long) (slots * MAX_LOAD_FACTOR))
+            throw new IllegalStateException("Map is full: " + usedSlots + " of " + slots + " slots used");
+        long record = append(key, value);
+        LONGS.setRelease(table, slotOffset(slot), (tag << TAG_SHIFT) | (record + 1));
+        if (entry == 0) LONGS.setRelease(table, USED_SLOTS_OFFSET, usedSlots + 1);
+        long size = (long) LONGS.get(table, SIZE_OFFSET);
+        if (present != (value != null)) LONGS.setRelease(table, SIZE_OFFSET, value == null ? size - 1 : size + 1);
+        return present;
+    }
+
+    private long append(byte[] key, byte[] value) throws IOException {
+        int valueLength = value == null ? 0 : value.length;
+        long length = RECORD_HEADER_SIZE + (long) key.length + valueLength;
+        long segmentSize = 1L << segmentShift;
+        if (length > segmentSize) throw new IllegalArgumentException("Record of " + length + " bytes exceeds segment");
+        long record = (long) LONGS.get(table, DATA_END_OFFSET);
+        if ((record & (segmentSize - 1)) + length > segmentSize) record = (record | (segmentSize - 1)) + 1;
+        if (record + length > OFFSET_MASK) throw new IllegalStateException("Data log is full");
+        ByteBuffer segment = mapSegments((int) (record >>> segmentShift));
+        int position = position(record);
+        segment.putInt(position, key.length);
+        segment.putInt(position + 4, value == null ? REMOVED : valueLength);
+        segment.put(position + RECORD_HEADER_SIZE, key);
+        if (value != null) segment.put(position + RECORD_HEADER_SIZE + key.length, value);
+        LONGS.setRelease(table, DATA_END_OFFSET, record + length);
+        return record;
+    }
+
+    /**
+     * Offset of the record holding {@code key}, or -1 if the key was never written.
+     */
+    private long find(byte[] key, long hash) {
+        int mask = slots - 1;
+        int slot = (int) hash & mask;
+        long tag = hash >>> TAG_SHIFT;
+        long entry;
+        while ((entry = slot(slot)) != 0) {
+            if (entry >>> TAG_SHIFT == tag && keyEquals(record(entry), key)) return record(entry);
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private long slot(int slot) {
+        return (long) LONGS.getAcquire(table, slotOffset(slot));
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static long record(long entry) {
+        return (entry & OFFSET_MASK) - 1;
+    }
+
+    private boolean keyEquals(long record, byte[] key) {
+        ByteBuffer segment = segment(record);
+        int position = position(record);
+        if (segment.getInt(position) != key.length) return false;
+        for (int i = 0; i < key.length; i++) {
+            if (segment.get(position + RECORD_HEADER_SIZE + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    private int position(long record) {
+        return (int) (record & ((1L << segmentShift) - 1));
+    }
+
+    private MappedByteBuffer segment(long record) {
+        int index = (int) (record >>> segmentShift);
+        MappedByteBuffer[] current = segments;
+        if (index < current.length) return current[index];
+        try {
+            return mapSegments(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized MappedByteBuffer mapSegments(int index) throws IOException {
+        MappedByteBuffer[] current = segments;
+        if (index < current.length) return current[index];
+        MappedByteBuffer[] grown = Arrays.copyOf(current, index + 1);
+        FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+        for (int i = current.length; i <= index; i++)
+            grown[i] = channel.map(mode, dataStart + ((long) i << segmentShift), 1L << segmentShift);
+        segments = grown;
+        return grown[index];
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long hash(byte[] key) {
+        long h = 1125899906842597L;
+        for (byte b : key) h = 31 * h + b;
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Writes the mapped table and data to the storage device.
+     */
+    public void force() {
+        table.force();
+        for (MappedByteBuffer segment : segments) segment.force();
+    }
+
+    /**
+     * An unmodifiable {@link Map} view backed by this map. Iteration walks the slot table and decodes every entry.
+     */
+    public Map<String, String> asMap() {
+        return new MapView();
+    }
+
+    /**
+     * Forces a writable map to storage and closes the file. Mappings are released when they become unreachable.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!readOnly && channel.isOpen()) force();
+        channel.close();
+    }
+
+    private class MapView extends AbstractMap<String, String> {
+        @Override
+        public int size() {
+            return MappedStringMap.this.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && MappedStringMap.this.containsKey((String) key);
+        }
+
+        @Override
+        public String get(Object key) {
+            return key instanceof String ? MappedStringMap.this.get((String) key) : null;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public int size() {
+                    return MappedStringMap.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<String, String>> {
+        private int slot = -1;
+        private Map.Entry<String, String> next = advance();
+
+        private Map.Entry<String, String> advance() {
+            while (++slot < slots) {
+                long entry = slot(slot);
+                if (entry == 0) continue;
+                ByteBuffer segment = segment(record(entry));
+                int position = position(record(entry));
+                int keyLength = segment.getInt(position);
+                int valueLength = segment.getInt(position + 4);
+                if (valueLength == REMOVED) continue;
+                byte[] key = new byte[keyLength];
+                byte[] value = new byte[valueLength];
+                segment.get(position + RECORD_HEADER_SIZE, key);
+                segment.get(position + RECORD_HEADER_SIZE + keyLength, value);
+                return new AbstractMap.SimpleImmutableEntry<>(new String(key, StandardCharsets.UTF_8),
+                        new String(value, StandardCharsets.UTF_8));
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (next == null) throw new NoSuchElementException();
+            Map.Entry<String, String> entry = next;
+            this.next = advance();
+            return entry;
+        }
+    }
+}
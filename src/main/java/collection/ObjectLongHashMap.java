@@ -0,0 +1,320 @@
+package collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Map from objects to {@code long} without boxing the values. Uses open addressing with linear probing like
+ * {@link LongLongHashMap}, with {@code null} marking a free slot, so keys must not be {@code null}. Lookups of absent
+ * keys return the map's {@link #missingValue()}.
+ * <p>
+ * {@link #forEach(ObjLongConsumer)} and {@link #cursor()} iterate without allocating; {@link #asMap()} is a
+ * {@link Map} view with boxed values. The map is not thread-safe, and must not be modified while iterating.
+ */
+public class ObjectLongHashMap<K> {
+    private final float loadFactor;
+    private final long missingValue;
+    private Object[] keys;
+    private long[] values;
+    private int threshold;
+    private int size;
+    private Cursor cursor;
+
+    public ObjectLongHashMap() {
+        this(Hashing.DEFAULT_EXPECTED_SIZE, Hashing.DEFAULT_LOAD_FACTOR, 0);
+    }
+
+    /**
+     * @param expectedSize number of entries the map holds without resizing
+     * @param loadFactor   fraction of slots that may be used before the table doubles, between 0 and 1
+     * @param missingValue value returned for absent keys
+     */
+    public ObjectLongHashMap(int expectedSize, float loadFactor, long missingValue) {
+        Hashing.checkLoadFactor(loadFactor);
+        this.loadFactor = loadFactor;
+        this.missingValue = missingValue;
+        allocate(Hashing.capacity(expectedSize, loadFactor));
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new long[capacity];
+        threshold = Hashing.threshold(capacity, loadFactor);
+    }
+
+    public long missingValue() {
+        return missingValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(Object key) {
+        return key != null && keys[slot(key)] != null;
+    }
+
+    public long get(Object key) {
+        return getOrDefault(key, missingValue);
+    }
+
+    public long getOrDefault(Object key, long defaultValue) {
+        if (key == null) return defaultValue;
+        int slot = slot(key);
+        return keys[slot] == null ? defaultValue : values[slot];
+    }
+
+    /**
+     * Associates {@code value} with {@code key}, returning the previous value or {@link #missingValue()}.
+     */
+    public long put(K key, long value) {
+        Objects.requireNonNull(key, "key");
+        int slot = slot(key);
+        if (keys[slot] != null) {
+            long previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) rehash(Hashing.grownCapacity(keys.length));
+        return missingValue;
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, starting from {@link #missingValue()}, and returns the sum.
+     */
+    public long addTo(K key, long delta) {
+        Objects.requireNonNull(key, "key");
+        int slot = slot(key);
+        if (keys[slot] != null) return values[slot] += delta;
+        long sum = missingValue + delta;
+        keys[slot] = key;
+        values[slot] = sum;
+        if (++size > threshold) rehash(Hashing.grownCapacity(keys.length));
+        return sum;
+    }
+
+    /**
+     * Removes {@code key}, returning its value or {@link #missingValue()}.
+     */
+    public long remove(Object key) {
+        if (key == null) return missingValue;
+        int slot = slot(key);
+        if (keys[slot] == null) return missingValue;
+        long previous = values[slot];
+        size--;
+        shiftBack(slot);
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjLongConsumer<? super K> action) {
+        Object[] keys = this.keys;
+        long[] values = this.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) action.accept((K) keys[i], values[i]);
+        }
+    }
+
+    /**
+     * The map's cursor, rewound to before the first entry. The same instance is returned on every call.
+     */
+    public Cursor cursor() {
+        if (cursor == null) cursor = new Cursor();
+        else cursor.rewind();
+        return cursor;
+    }
+
+    private static int hash(Object key) {
+        return Hashing.mix(key.hashCode());
+    }
+
+    /**
+     * Slot holding {@code key}, or the free slot where it would be inserted.
+     */
+    private int slot(Object key) {
+        Object[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (Object k; (k = keys[slot]) != null; slot = (slot + 1) & mask) {
+            if (k == key || k.equals(key)) return slot;
+        }
+        return slot;
+    }
+
+    /**
+     * Frees {@code slot}, moving later entries of its probe run back so that every entry stays reachable.
+     */
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int free = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            Object key = keys[next];
+            if (key == null) break;
+            int home = hash(key) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = key;
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        keys[free] = null;
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key == null) continue;
+            int slot = hash(key) & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * A {@link Map} view backed by this map. Values are boxed on access; absent keys read as {@code null} even when
+     * {@link #missingValue()} is not. Its iterators do not support removal.
+     */
+    public Map<K, Long> asMap() {
+        return new MapView();
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    /**
+     * Walks the entries in table order: {@code while (cursor.next()) use(cursor.key(), cursor.value());}
+     */
+    public class Cursor {
+        private Object[] keys;
+        private long[] values;
+        private int slot;
+
+        private Cursor() {
+            rewind();
+        }
+
+        private void rewind() {
+            keys = ObjectLongHashMap.this.keys;
+            values = ObjectLongHashMap.this.values;
+            slot = -1;
+        }
+
+        public boolean next() {
+            Object[] keys = this.keys;
+            int next = slot + 1;
+            while (next < keys.length && keys[next] == null) next++;
+            slot = Math.min(next, keys.length);
+            return slot < keys.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        public K key() {
+            checkPosition();
+            return (K) keys[slot];
+        }
+
+        public long value() {
+            checkPosition();
+            return values[slot];
+        }
+
+        private void checkPosition() {
+            if (slot < 0 || slot >= keys.length) throw new NoSuchElementException();
+        }
+    }
+
+    private class MapView extends AbstractMap<K, Long> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return ObjectLongHashMap.this.containsKey(key);
+        }
+
+        @Override
+        public Long get(Object key) {
+            if (!ObjectLongHashMap.this.containsKey(key)) return null;
+            return ObjectLongHashMap.this.get(key);
+        }
+
+        @Override
+        public Long put(K key, Long value) {
+            Long previous = get(key);
+            ObjectLongHashMap.this.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public Long remove(Object key) {
+            Long previous = get(key);
+            if (previous != null) ObjectLongHashMap.this.remove(key);
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            ObjectLongHashMap.this.clear();
+        }
+
+        @Override
+        public Set<Entry<K, Long>> entrySet() {
+            return new AbstractSet<Entry<K, Long>>() {
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Iterator<Entry<K, Long>> iterator() {
+                    Cursor entries = new Cursor();
+                    return new Iterator<Entry<K, Long>>() {
+                        private boolean hasNext = entries.next();
+
+                        @Override
+                        public boolean hasNext() {
+                            return hasNext;
+                        }
+
+                        @Override
+                        public Entry<K, Long> next() {
+                            if (!hasNext) throw new NoSuchElementException();
+                            Entry<K, Long> entry = new SimpleImmutableEntry<>(entries.key(), entries.value());
+                            hasNext = entries.next();
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
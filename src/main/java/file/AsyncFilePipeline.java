@@ -0,0 +1,365 @@
+package file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reads and writes a file at explicit offsets without blocking the caller, returning a {@link CompletableFuture} per
+ * request. At most {@code maxInFlight} operations are outstanding on the channel; further requests wait in a queue,
+ * and when an operation is started, queued requests of the same kind that touch its range are merged into it, up to
+ * {@code maxMergeBytes}. Many small reads of neighbouring index entries thus become few larger reads. At most
+ * {@code maxPending} requests wait in the queue; beyond that, requests fail immediately with a
+ * {@link RejectedExecutionException} rather than blocking the caller, which may be a completion callback of an
+ * earlier request.
+ * <p>
+ * Like {@link AsynchronousFileChannel}, requests are not ordered with respect to each other: a read of a range with
+ * an outstanding write should be chained on the write's future.
+ */
+public class AsyncFilePipeline implements Closeable {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+    public static final int DEFAULT_MAX_MERGE_BYTES = 256 * 1024;
+    public static final int DEFAULT_MAX_PENDING = 4096;
+    private static final int MERGE_WINDOW = 64;
+
+    private final AsynchronousFileChannel channel;
+    private final int maxInFlight;
+    private final int maxMergeBytes;
+    private final int maxPending;
+    private final ArrayDeque<Request> pending = new ArrayDeque<>();
+    private int inFlight;
+    private int peakInFlight;
+    private long requests;
+    private long operations;
+    private long rejected;
+    private boolean closed;
+
+    public AsyncFilePipeline(AsynchronousFileChannel channel, int maxInFlight, int maxMergeBytes) {
+        this(channel, maxInFlight, maxMergeBytes, DEFAULT_MAX_PENDING);
+    }
+
+    public AsyncFilePipeline(AsynchronousFileChannel channel, int maxInFlight, int maxMergeBytes, int maxPending) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be positive");
+        if (maxMergeBytes < 0) throw new IllegalArgumentException("maxMergeBytes must not be negative");
+        if (maxPending < 0) throw new IllegalArgumentException("maxPending must not be negative");
+        this.channel = channel;
+        this.maxInFlight = maxInFlight;
+        this.maxMergeBytes = maxMergeBytes;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Opens {@code file} for reading and writing, creating it if necessary, unless other options are given.
+     */
+    public static AsyncFilePipeline open(Path file, OpenOption... options) throws IOException {
+        if (options.length == 0) {
+            options = new OpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+        }
+        return new AsyncFilePipeline(AsynchronousFileChannel.open(file, options), DEFAULT_MAX_IN_FLIGHT,
+                DEFAULT_MAX_MERGE_BYTES);
+    }
+
+    /**
+     * Reads up to {@code length} bytes at {@code position}. The returned buffer is read-only and shorter than
+     * {@code length} if the file ends first.
+     */
+    public CompletableFuture<ByteBuffer> read(long position, int length) {
+        if (position < 0 || length < 0) throw new IllegalArgumentException("Negative position or length");
+        Request request = new Request(false, position, length, null);
+        submit(request);
+        return request.readFuture;
+    }
+
+    /**
+     * Writes the remaining bytes of {@code data} at {@code position}. The buffer must not be modified until the
+     * returned future completes; its position is left unchanged.
+     */
+    public CompletableFuture<Void> write(long position, ByteBuffer data) {
+        if (position < 0) throw new IllegalArgumentException("Negative position");
+        Request request = new Request(true, position, data.remaining(), data.slice());
+        submit(request);
+        return request.writeFuture;
+    }
+
+    private void submit(Request request) {
+        synchronized (this) {
+            if (closed) {
+                request.fail(new ClosedChannelException());
+                return;
+            }
+            if (inFlight == maxInFlight && pending.size() >= maxPending) {
+                rejected++;
+                request.fail(new RejectedExecutionException("Too many pending requests: " + pending.size()));
+                return;
+            }
+            requests++;
+            pending.add(request);
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (true) {
+            List<Request> batch;
+            synchronized (this) {
+                if (inFlight == maxInFlight || pending.isEmpty()) return;
+                batch = nextBatch();
+                inFlight++;
+                peakInFlight = Math.max(peakInFlight, inFlight);
+                operations++;
+            }
+            if (batch.get(0).write) new WriteOperation(batch).start();
+            else new ReadOperation(batch).start();
+        }
+    }
+
+    /**
+     * Takes the oldest pending request together with the queued requests of the same kind that can be merged with
+     * it. Reads merge when their ranges touch or overlap, writes only when they are exactly adjacent.
+     */
+    private List<Request> nextBatch() {
+        Request head = pending.poll();
+        List<Request> candidates = new ArrayList<>();
+        candidates.add(head);
+        Iterator<Request> it = pending.iterator();
+        for (int i = 0; i < MERGE_WINDOW && it.hasNext(); i++) {
+            Request request = it.next();
+            if (request.write == head.write && request.length <= maxMergeBytes) candidates.add(request);
+        }
+        if (candidates.size() == 1) return candidates;
+
+        candidates.sort(Comparator.comparingLong(request -> request.position));
+        List<Request> group = new ArrayList<>();
+        List<Request> headGroup = null;
+        long groupStart = 0;
+        long groupEnd = 0;
+        for (Request request : candidates) {
+            boolean joins = !group.isEmpty()
+                    && (head.write ? request.position == groupEnd : request.position <= groupEnd)
+                    && Math.max(groupEnd, request.end()) - groupStart <= maxMergeBytes;
+            if (!joins) {
+                if (headGroup != null) break;
+                group = new ArrayList<>();
+                groupStart = request.position;
+                groupEnd = request.end();
+            }
+            group.add(request);
+            groupEnd = Math.max(groupEnd, request.end());
+            if (request == head) headGroup = group;
+        }
+
+        Map<Request, Boolean> merged = new IdentityHashMap<>();
+        for (Request request : headGroup) merged.put(request, true);
+        it = pending.iterator();
+        for (int i = 0; i < MERGE_WINDOW && it.hasNext(); i++) {
+            if (merged.containsKey(it.next())) it.remove();
+        }
+        return headGroup;
+    }
+
+    private void completed() {
+        synchronized (this) {
+            inFlight--;
+            if (inFlight == 0 && pending.isEmpty()) notifyAll();
+        }
+        dispatch();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(requests, operations, peakInFlight, rejected);
+    }
+
+    /**
+     * Waits for all submitted requests to complete and closes the channel. Requests submitted afterwards fail with
+     * {@link ClosedChannelException}.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            try {
+                while (inFlight > 0 || !pending.isEmpty()) wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for outstanding requests");
+            }
+        }
+        channel.close();
+    }
+
+    private static class Request {
+        final boolean write;
+        final long position;
+        final int length;
+        final ByteBuffer data;
+        final CompletableFuture<ByteBuffer> readFuture;
+        final CompletableFuture<Void> writeFuture;
+
+        Request(boolean write, long position, int length, ByteBuffer data) {
+            this.write = write;
+            this.position = position;
+            this.length = length;
+            this.data = data;
+            this.readFuture = write ? null : new CompletableFuture<>();
+            this.writeFuture = write ? new CompletableFuture<>() : null;
+        }
+
+        long end() {
+            return position + length;
+        }
+
+        void fail(Throwable failure) {
+            if (write) writeFuture.completeExceptionally(failure);
+            else readFuture.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Reads the union of the batch's ranges into one buffer, repeating short reads until it is full or the file ends,
+     * and hands each request a view of its part.
+     */
+    private class ReadOperation implements CompletionHandler<Integer, Void> {
+        private final List<Request> batch;
+        private final long start;
+        private final ByteBuffer buffer;
+
+        ReadOperation(List<Request> batch) {
+            this.batch = batch;
+            this.start = batch.get(0).position;
+            long end = start;
+            for (Request request : batch) end = Math.max(end, request.end());
+            this.buffer = ByteBuffer.allocate((int) (end - start));
+        }
+
+        void start() {
+            try {
+                channel.read(buffer, start + buffer.position(), null, this);
+            } catch (RuntimeException e) {
+                failed(e, null);
+            }
+        }
+
+        @Override
+        public void completed(Integer read, Void attachment) {
+            if (read >= 0 && buffer.hasRemaining()) {
+                start();
+                return;
+            }
+            ByteBuffer result = buffer.flip().asReadOnlyBuffer();
+            for (Request request : batch) {
+                int from = (int) Math.min(request.position - start, result.limit());
+                int to = (int) Math.min(request.end() - start, result.limit());
+                request.readFuture.complete(result.duplicate().limit(to).position(from).slice());
+            }
+            AsyncFilePipeline.this.completed();
+        }
+
+        @Override
+        public void failed(Throwable failure, Void attachment) {
+            for (Request request : batch) request.fail(failure);
+            AsyncFilePipeline.this.completed();
+        }
+    }
+
+    private class WriteOperation implements CompletionHandler<Integer, Void> {
+        private final List<Request> batch;
+        private final long start;
+        private final ByteBuffer buffer;
+
+        WriteOperation(List<Request> batch) {
+            this.batch = batch;
+            this.start = batch.get(0).position;
+            if (batch.size() == 1) {
+                this.buffer = batch.get(0).data;
+            } else {
+                int length = 0;
+                for (Request request : batch) length += request.length;
+                ByteBuffer merged = ByteBuffer.allocate(length);
+                for (Request request : batch) merged.put(request.data.duplicate());
+                this.buffer = merged.flip();
+            }
+        }
+
+        void start() {
+            try {
+                channel.write(buffer, start + buffer.position(), null, this);
+            } catch (RuntimeException e) {
+                failed(e, null);
+            }
+        }
+
+        @Override
+        public void completed(Integer written, Void attachment) {
+            if (buffer.hasRemaining()) {
+                start();
+                return;
+            }
+            for (Request request : batch) request.writeFuture.complete(null);
+            AsyncFilePipeline.this.completed();
+        }
+
+        @Override
+        public void failed(Throwable failure, Void attachment) {
+            for (Request request : batch) request.fail(failure);
+            AsyncFilePipeline.this.completed();
+        }
+    }
+
+    public static class Stats {
+        private final long requests;
+        private final long operations;
+        private final int peakInFlight;
+        private final long rejected;
+
+        Stats(long requests, long operations, int peakInFlight, long rejected) {
+            this.requests = requests;
+            this.operations = operations;
+            this.peakInFlight = peakInFlight;
+            this.rejected = rejected;
+        }
+
+        public long requests() {
+            return requests;
+        }
+
+        /**
+         * Number of reads and writes started on the channel, not counting repeats of short transfers.
+         */
+        public long operations() {
+            return operations;
+        }
+
+        public int peakInFlight() {
+            return peakInFlight;
+        }
+
+        /**
+         * Number of requests failed because the queue was full; these are not counted in {@link #requests()}.
+         */
+        public long rejected() {
+            return rejected;
+        }
+
+        @Override
+        public String toString() {
+            return "requests=" + requests + ", operations=" + operations + ", peakInFlight=" + peakInFlight
+                    + ", rejected=" + rejected;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package file;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files written by {@link BlockGzipWriter} using their block index. {@link #lines(long)} decompresses up to
+ * {@code readAhead} blocks ahead of the consumer in parallel, and starts at any line by decompressing only from the
+ * block that contains it.
+ */
+public class BlockGzipReader implements Closeable {
+    private static final int MEMBER_HEADER_SIZE = 10;
+    private static final int MEMBER_TRAILER_SIZE = 8;
+
+    private final FileChannel channel;
+    private final Executor executor;
+    private final int readAhead;
+    private final long[] offsets;
+    private final int[] compressedLengths;
+    private final int[] lengths;
+    private final long[] firstLines;
+    private final long lineCount;
+
+    public static BlockGzipReader open(Path file) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        return new BlockGzipReader(file, pool, Math.max(2, pool.getParallelism() * 2));
+    }
+
+    public BlockGzipReader(Path file, Executor executor, int readAhead) throws IOException {
+        if (readAhead < 1) throw new IllegalArgumentException("readAhead must be positive");
+        this.executor = executor;
+        this.readAhead = readAhead;
+        try (DataInputStream index = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(BlockGzipWriter.indexFor(file))))) {
+            if (index.readInt() != BlockGzipWriter.INDEX_MAGIC) throw new IOException("Not a block index: " + file);
+            int blocks = index.readInt();
+            offsets = new long[blocks];
+            compressedLengths = new int[blocks];
+            lengths = new int[blocks];
+            firstLines = new long[blocks + 1];
+            for (int i = 0; i < blocks; i++) {
+                offsets[i] = index.readLong();
+                compressedLengths[i] = index.readInt();
+                lengths[i] = index.readInt();
+                firstLines[i + 1] = firstLines[i] + index.readInt();
+            }
+            lineCount = firstLines[blocks];
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    public int blockCount() {
+        return offsets.length;
+    }
+
+    public long lineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Decompresses block {@code block}, checking its CRC and length. Safe to call from several threads.
+     */
+    public byte[] block(int block) throws IOException {
+        ByteBuffer member = ByteBuffer.allocate(compressedLengths[block]);
+        while (member.hasRemaining()) {
+            if (channel.read(member, offsets[block] + member.position()) < 0) throw new IOException("Truncated file");
+        }
+        byte[] compressed = member.array();
+        if (compressed.length < MEMBER_HEADER_SIZE + MEMBER_TRAILER_SIZE
+                || compressed[0] != 0x1f || compressed[1] != (byte) 0x8b || compressed[3] != 0) {
+            throw new IOException("Unexpected gzip member header in block " + block);
+        }
+        byte[] bytes = new byte[lengths[block]];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed, MEMBER_HEADER_SIZE,
+                    compressed.length - MEMBER_HEADER_SIZE - MEMBER_TRAILER_SIZE);
+            int inflated = 0;
+            while (inflated < bytes.length && !inflater.finished()) {
+                int n = inflater.inflate(bytes, inflated, bytes.length - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                inflated += n;
+            }
+            if (inflated != bytes.length || !inflater.finished()) throw new IOException("Corrupt block " + block);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block, e);
+        } finally {
+            inflater.end();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if ((int) crc.getValue() != readIntLittleEndian(compressed, compressed.length - MEMBER_TRAILER_SIZE)) {
+            throw new IOException("CRC mismatch in block " + block);
+        }
+        return bytes;
+    }
+
+    private static int readIntLittleEndian(byte[] bytes, int offset) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) value |= (bytes[offset + i] & 0xff) << (8 * i);
+        return value;
+    }
+
+    public Stream<String> lines() {
+        return lines(0);
+    }
+
+    /**
+     * Lines from line {@code fromLine} (zero-based) to the end of the file, without their terminators.
+     */
+    public Stream<String> lines(long fromLine) {
+        if (fromLine < 0 || fromLine > lineCount) throw new IndexOutOfBoundsException("Line " + fromLine);
+        int block = blockContaining(fromLine);
+        LineIterator lines = new LineIterator(block, fromLine - firstLines[block]);
+        return StreamSupport.stream(Spliterators.spliterator(lines, lineCount - fromLine,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private int blockContaining(long line) {
+        int low = 0;
+        int high = offsets.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (firstLines[mid] <= line) low = mid;
+            else high = mid - 1;
+        }
+        return Math.max(low, 0);
+    }
+
+    private CompletableFuture<byte[]> decompress(int block) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return block(block);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Walks the lines of consecutive blocks, keeping up to {@code readAhead} later blocks decompressing.
+     */
+    private class LineIterator implements Iterator<String> {
+        private final ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+        private int nextBlock;
+        private byte[] bytes = new byte[0];
+        private int position;
+        private long skipLines;
+
+        LineIterator(int firstBlock, long skipLines) {
+            this.nextBlock = firstBlock;
+            this.skipLines = skipLines;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == bytes.length) {
+                while (pending.size() < readAhead && nextBlock < offsets.length) pending.add(decompress(nextBlock++));
+                if (pending.isEmpty()) return false;
+                try {
+                    bytes = pending.poll().join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof UncheckedIOException) throw (UncheckedIOException) e.getCause();
+                    throw e;
+                }
+                position = 0;
+                for (; skipLines > 0; skipLines--) position = lineEnd(position) + 1;
+            }
+            return true;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int end = lineEnd(position);
+            String line = new String(bytes, position, end - position, StandardCharsets.UTF_8);
+            position = end + 1;
+            return line;
+        }
+
+        private int lineEnd(int from) {
+            int i = from;
+            while (bytes[i] != '\n') i++;
+            return i;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,183 @@
+package file;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Writes lines as gzip, compressing blocks of about {@code blockSize} bytes concurrently. Each block holds whole lines
+ * and becomes an independent gzip member, so the output is a multi-member gzip file that {@code gzip -d} and
+ * {@link GZIPInputStream} read as one stream. On {@link #close()} a block index is written next to the file (see
+ * {@link #indexFor(Path)}), which {@link BlockGzipReader} uses to decompress blocks in parallel and to seek to a line.
+ * <p>
+ * At most {@code maxInFlight} blocks are compressed at once; writing a line blocks while the oldest block is still
+ * being compressed. Blocks are written in order. Instances are not thread-safe.
+ */
+public class BlockGzipWriter implements Closeable {
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    static final int INDEX_MAGIC = 0x42475a49;
+    private static final byte[] MEMBER_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final Path file;
+    private final OutputStream out;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final int blockSize;
+    private final int level;
+    private final ArrayDeque<CompletableFuture<Block>> inFlight = new ArrayDeque<>();
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+    private final DataOutputStream indexOut = new DataOutputStream(index);
+    private byte[] block;
+    private int blockLength;
+    private int blockLines;
+    private long offset;
+    private int blocks;
+    private boolean closed;
+
+    public static BlockGzipWriter open(Path file) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        return new BlockGzipWriter(file, pool, Math.max(2, pool.getParallelism() * 2), DEFAULT_BLOCK_SIZE,
+                Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param level a {@link Deflater} compression level
+     */
+    public BlockGzipWriter(Path file, Executor executor, int maxInFlight, int blockSize, int level)
+            throws IOException {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be positive");
+        if (blockSize < 1) throw new IllegalArgumentException("blockSize must be positive");
+        this.file = file;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.blockSize = blockSize;
+        this.level = level;
+        this.block = new byte[blockSize];
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+    }
+
+    /**
+     * The block index of a file written by this class: the file name with {@code .idx} appended.
+     */
+    public static Path indexFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    /**
+     * Writes {@code line} followed by a newline.
+     *
+     * @throws IllegalArgumentException if {@code line} contains {@code '\n'} or {@code '\r'}, which would break the
+     *                                  line counts of the block index
+     */
+    public void writeLine(CharSequence line) throws IOException {
+        if (closed) throw new IOException("Writer closed");
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\n' || c == '\r') throw new IllegalArgumentException("Line contains a line terminator");
+        }
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        int needed = blockLength + bytes.length + 1;
+        if (needed > block.length) block = Arrays.copyOf(block, Math.max(needed, block.length * 2));
+        System.arraycopy(bytes, 0, block, blockLength, bytes.length);
+        block[needed - 1] = '\n';
+        blockLength = needed;
+        blockLines++;
+        if (blockLength >= blockSize) submitBlock();
+    }
+
+    private void submitBlock() throws IOException {
+        if (blockLength == 0) return;
+        if (inFlight.size() == maxInFlight) writeBlock(inFlight.poll());
+        byte[] bytes = block;
+        int length = blockLength;
+        int lines = blockLines;
+        inFlight.add(CompletableFuture.supplyAsync(() -> compress(bytes, length, lines), executor));
+        block = new byte[blockSize];
+        blockLength = 0;
+        blockLines = 0;
+    }
+
+    private Block compress(byte[] bytes, int length, int lines) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(bytes, 0, length);
+            deflater.finish();
+            ByteArrayOutputStream member = new ByteArrayOutputStream(length / 2 + 64);
+            member.write(MEMBER_HEADER, 0, MEMBER_HEADER.length);
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                member.write(buffer, 0, n);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, length);
+            writeIntLittleEndian(member, (int) crc.getValue());
+            writeIntLittleEndian(member, length);
+            return new Block(member.toByteArray(), length, lines);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeIntLittleEndian(ByteArrayOutputStream out, int value) {
+        for (int i = 0; i < 4; i++) out.write(value >>> (8 * i));
+    }
+
+    private void writeBlock(CompletableFuture<Block> future) throws IOException {
+        Block compressed = future.join();
+        out.write(compressed.member);
+        indexOut.writeLong(offset);
+        indexOut.writeInt(compressed.member.length);
+        indexOut.writeInt(compressed.length);
+        indexOut.writeInt(compressed.lines);
+        offset += compressed.member.length;
+        blocks++;
+    }
+
+    /**
+     * Compresses and writes the remaining lines, then writes the block index.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            submitBlock();
+            while (!inFlight.isEmpty()) writeBlock(inFlight.poll());
+        } finally {
+            out.close();
+        }
+        try (DataOutputStream indexFile = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(indexFor(file))))) {
+            indexFile.writeInt(INDEX_MAGIC);
+            indexFile.writeInt(blocks);
+            index.writeTo(indexFile);
+        }
+    }
+
+    private static class Block {
+        final byte[] member;
+        final int length;
+        final int lines;
+
+        Block(byte[] member, int length, int lines) {
+            this.member = member;
+            this.length = length;
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package file;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads many small files concurrently, one virtual thread per file by default. Virtual threads make blocking reads
+ * cheap to overlap, so the limit that matters is the device: at most {@code permitsPerDevice} reads are in flight
+ * per {@link FileStore}. A failed read is reported in its {@link Result} and does not affect the rest of the batch;
+ * this includes files too large for a byte array and unchecked failures, which are wrapped in an
+ * {@link IOException}.
+ */
+public class BulkFileLoader implements AutoCloseable {
+    public static final int DEFAULT_PERMITS_PER_DEVICE = 64;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final int permitsPerDevice;
+    private final ConcurrentMap<Path, Object> deviceByDirectory = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, Semaphore> permitsByDevice = new ConcurrentHashMap<>();
+
+    public BulkFileLoader() {
+        this(DEFAULT_PERMITS_PER_DEVICE);
+    }
+
+    public BulkFileLoader(int permitsPerDevice) {
+        this(Executors.newVirtualThreadPerTaskExecutor(), true, permitsPerDevice);
+    }
+
+    /**
+     * Reads on the given executor, e.g. a fixed pool of platform threads. The executor is not shut down on
+     * {@link #close()}.
+     */
+    public BulkFileLoader(ExecutorService executor, int permitsPerDevice) {
+        this(executor, false, permitsPerDevice);
+    }
+
+    private BulkFileLoader(ExecutorService executor, boolean ownsExecutor, int permitsPerDevice) {
+        if (permitsPerDevice < 1) throw new IllegalArgumentException("permitsPerDevice must be positive");
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.permitsPerDevice = permitsPerDevice;
+    }
+
+    /**
+     * Reads all files and returns their results in the order of {@code paths}.
+     */
+    public List<Result> loadAll(Collection<Path> paths) {
+        return loadAll(paths.stream());
+    }
+
+    public List<Result> loadAll(Stream<Path> paths) {
+        List<CompletableFuture<Result>> futures = paths.map(this::submit).collect(Collectors.toList());
+        List<Result> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<Result> future : futures) results.add(future.join());
+        return results;
+    }
+
+    /**
+     * Starts reading all files and returns their results in the order the reads complete. The returned stream blocks
+     * until the next result is available.
+     */
+    public Stream<Result> loadAsCompleted(Collection<Path> paths) {
+        return loadAsCompleted(paths.stream());
+    }
+
+    public Stream<Result> loadAsCompleted(Stream<Path> paths) {
+        BlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+        List<CompletableFuture<Result>> futures = paths.map(this::submit).collect(Collectors.toList());
+        futures.forEach(future -> future.thenAccept(completed::add));
+        return Stream.generate(() -> take(completed)).limit(futures.size());
+    }
+
+    private static Result take(BlockingQueue<Result> completed) {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for a read"));
+        }
+    }
+
+    /**
+     * Starts reading {@code path}; the future always completes normally, with a failed result if anything went wrong.
+     */
+    private CompletableFuture<Result> submit(Path path) {
+        try {
+            return CompletableFuture.supplyAsync(() -> read(path), executor)
+                    .exceptionally(e -> failed(path, e instanceof CompletionException ? e.getCause() : e));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(failed(path, e));
+        }
+    }
+
+    private Result read(Path path) {
+        Semaphore permits;
+        try {
+            permits = permitsByDevice.computeIfAbsent(device(path), device -> new Semaphore(permitsPerDevice));
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(path, null, new InterruptedIOException("Interrupted while waiting for " + path));
+        } catch (RuntimeException e) {
+            return failed(path, e);
+        }
+        try {
+            return new Result(path, readAllBytes(path), null);
+        } catch (IOException e) {
+            return new Result(path, null, e);
+        } catch (RuntimeException e) {
+            return failed(path, e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static Result failed(Path path, Throwable e) {
+        return new Result(path, null, e instanceof IOException ? (IOException) e : new IOException(e));
+    }
+
+    /**
+     * Same as {@link Files#readAllBytes(Path)}, but fails with an {@link IOException} rather than an
+     * {@link OutOfMemoryError} if the file does not fit in an array.
+     */
+    private static byte[] readAllBytes(Path path) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            long size = channel.size();
+            if (size > MAX_ARRAY_SIZE) throw new IOException("File too large to read into an array: " + path);
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until full or end of file
+            }
+            if (buffer.hasRemaining()) return Arrays.copyOf(buffer.array(), buffer.position());
+            // the file grew since its size was read
+            byte[] rest = Channels.newInputStream(channel).readNBytes(MAX_ARRAY_SIZE - (int) size + 1);
+            if (rest.length == 0) return buffer.array();
+            if (size + rest.length > MAX_ARRAY_SIZE)
+                throw new IOException("File too large to read into an array: " + path);
+            byte[] bytes = Arrays.copyOf(buffer.array(), (int) size + rest.length);
+            System.arraycopy(rest, 0, bytes, (int) size, rest.length);
+            return bytes;
+        }
+    }
+
+    /**
+     * The file store of the file's directory, looked up once per directory. Files in directories whose store cannot
+     * be determined share a limit per file system.
+     */
+    private Object device(Path path) {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory == null) return path.getFileSystem();
+        return deviceByDirectory.computeIfAbsent(directory, dir -> {
+            try {
+                return Files.getFileStore(dir);
+            } catch (IOException e) {
+                return dir.getFileSystem();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) executor.close();
+    }
+
+    public static class Result {
+        private final Path path;
+        private final byte[] bytes;
+        private final IOException failure;
+
+        Result(Path path, byte[] bytes, IOException failure) {
+            this.path = path;
+            this.bytes = bytes;
+            this.failure = failure;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        public boolean isSuccess() {
+            return failure == null;
+        }
+
+        /**
+         * The file's content, or the exception its read failed with.
+         */
+        public byte[] bytes() throws IOException {
+            if (failure != null) throw failure;
+            return bytes;
+        }
+
+        public IOException failure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return path + (failure == null ? " (" + bytes.length + " bytes)" : " (" + failure + ")");
+        }
+    }
+}
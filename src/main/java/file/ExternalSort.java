@@ -0,0 +1,231 @@
+package file;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sorts line streams larger than the heap. Lines are collected into runs that fit the memory budget, each run is
+ * sorted on a worker thread and spilled to a temporary file, and the runs are then lazily k-way merged. Input that
+ * fits into a single run is sorted in memory without touching the temporary directory. Lines must not contain line
+ * terminators, as spilled runs are stored one line per line.
+ */
+public class ExternalSort {
+    private static final long STRING_OVERHEAD_BYTES = 56;
+
+    private final Path tempDir;
+    private final long memoryBudget;
+    private final Comparator<? super String> comparator;
+    private final int parallelism;
+
+    public ExternalSort(Path tempDir, long memoryBudget, Comparator<? super String> comparator) {
+        this(tempDir, memoryBudget, comparator, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param memoryBudget approximate heap bytes shared by the run being filled and the up to {@code parallelism}
+     *                     runs being sorted
+     */
+    public ExternalSort(Path tempDir, long memoryBudget, Comparator<? super String> comparator, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.tempDir = tempDir;
+        this.memoryBudget = memoryBudget;
+        this.comparator = comparator;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sorted lines of {@code lines}; the returned stream must be closed to delete the spilled runs.
+     */
+    public Stream<String> sort(Stream<String> lines) throws IOException {
+        long runBudget = Math.max(1, memoryBudget / (parallelism + 1));
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Semaphore runsInFlight = new Semaphore(parallelism);
+        List<Future<Path>> spills = new ArrayList<>();
+        try {
+            List<String> run = new ArrayList<>();
+            long runSize = 0;
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                run.add(line);
+                runSize += estimateSize(line);
+                if (runSize >= runBudget && iterator.hasNext()) {
+                    spills.add(spill(run, executor, runsInFlight));
+                    run = new ArrayList<>();
+                    runSize = 0;
+                }
+            }
+            if (spills.isEmpty()) {
+                run.sort(comparator);
+                return run.stream();
+            }
+            spills.add(spill(run, executor, runsInFlight));
+            return merge(awaitAll(spills));
+        } catch (IOException | RuntimeException e) {
+            deleteCompleted(spills);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deleteCompleted(spills);
+            throw new IOException("Interrupted while spilling sorted runs", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public Stream<String> sort(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return sort(lines);
+        }
+    }
+
+    private static long estimateSize(String line) {
+        return STRING_OVERHEAD_BYTES + 2L * line.length();
+    }
+
+    private Future<Path> spill(List<String> run, ExecutorService executor, Semaphore runsInFlight)
+            throws InterruptedException {
+        runsInFlight.acquire();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                run.sort(comparator);
+                Path file = Files.createTempFile(tempDir, "sort-run", ".txt");
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    for (String line : run) {
+                        writer.write(line);
+                        writer.write('\n');
+                    }
+                }
+                return file;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                runsInFlight.release();
+            }
+        }, executor);
+    }
+
+    private List<Path> awaitAll(List<Future<Path>> spills) throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<>(spills.size());
+        for (Future<Path> spill : spills) {
+            try {
+                files.add(spill.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+                if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+                throw new IOException("Failed to spill sorted run", cause);
+            }
+        }
+        return files;
+    }
+
+    private void deleteCompleted(List<Future<Path>> spills) {
+        for (Future<Path> spill : spills) {
+            try {
+                Files.deleteIfExists(spill.get());
+            } catch (Exception e) {
+                // best effort clean up, the original failure is more relevant
+            }
+        }
+    }
+
+    private Stream<String> merge(List<Path> runs) throws IOException {
+        MergeSpliterator merge = new MergeSpliterator(runs);
+        return StreamSupport.stream(merge, false).onClose(merge::close);
+    }
+
+    private class MergeSpliterator extends Spliterators.AbstractSpliterator<String> {
+        private final List<Path> runs;
+        private final List<BufferedReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunHead> heads = new PriorityQueue<>((a, b) -> comparator.compare(a.line, b.line));
+
+        MergeSpliterator(List<Path> runs) throws IOException {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SORTED);
+            this.runs = runs;
+            try {
+                for (Path run : runs) {
+                    BufferedReader reader = Files.newBufferedReader(run, StandardCharsets.UTF_8);
+                    readers.add(reader);
+                    advance(new RunHead(reader));
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private void advance(RunHead head) throws IOException {
+            head.line = head.reader.readLine();
+            if (head.line != null) heads.add(head);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            RunHead head = heads.poll();
+            if (head == null) return false;
+            String line = head.line;
+            try {
+                advance(head);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            action.accept(line);
+            return true;
+        }
+
+        @Override
+        public Comparator<? super String> getComparator() {
+            return comparator;
+        }
+
+        void close() {
+            UncheckedIOException failure = null;
+            for (BufferedReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    if (failure == null) failure = new UncheckedIOException(e);
+                }
+            }
+            for (Path run : runs) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException e) {
+                    if (failure == null) failure = new UncheckedIOException(e);
+                }
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    private static class RunHead {
+        private final BufferedReader reader;
+        private String line;
+
+        RunHead(BufferedReader reader) {
+            this.reader = reader;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only view of a file's bytes. Small files are copied onto the heap like {@link Files#readAllBytes(Path)};
+ * files at or above a size threshold, and any file too large for a heap array, are memory-mapped instead, as a list
+ * of chunks so files over 2 GB can be addressed with {@code long} positions. Characters are only decoded when
+ * {@link #decode} is called.
+ * <p>
+ * A mapping cannot be released deterministically: like any {@link java.nio.MappedByteBuffer}, it is released by the
+ * garbage collector once neither the content nor the buffers obtained from it are reachable. Hence there is no
+ * {@code close()}, and buffers obtained from the content stay safe to read for as long as they are referenced.
+ */
+public final class FileContent {
+    private static final int DEFAULT_CHUNK_SHIFT = 30;
+    private static final long MAX_COPY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final ByteBuffer[] chunks;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final long size;
+    private final boolean mapped;
+
+    private FileContent(ByteBuffer[] chunks, int chunkShift, long size, boolean mapped) {
+        this.chunks = chunks;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.size = size;
+        this.mapped = mapped;
+    }
+
+    /**
+     * Maps {@code file} if it is at least {@code mappingThreshold} bytes, otherwise copies it onto the heap. Files on
+     * file systems that cannot map, like Jimfs, are always copied.
+     */
+    public static FileContent read(Path file, long mappingThreshold) throws IOException {
+        return read(file, mappingThreshold, DEFAULT_CHUNK_SHIFT);
+    }
+
+    static FileContent read(Path file, long mappingThreshold, int chunkShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= mappingThreshold || size > MAX_COPY_SIZE) {
+                try {
+                    return map(channel, size, chunkShift);
+                } catch (UnsupportedOperationException e) {
+                    if (size > MAX_COPY_SIZE)
+                        throw new IOException("File too large to copy and its file system cannot map: " + file, e);
+                    // fall back to copying below
+                }
+            }
+            return copy(channel, size);
+        }
+    }
+
+    private static FileContent map(FileChannel channel, long size, int chunkShift) throws IOException {
+        long chunkSize = 1L << chunkShift;
+        int chunkCount = (int) Math.max(1, (size + chunkSize - 1) >>> chunkShift);
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            long position = (long) i << chunkShift;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunkSize, size - position));
+        }
+        return new FileContent(chunks, chunkShift, size, true);
+    }
+
+    private static FileContent copy(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining())
+            if (channel.read(buffer) < 0) break;
+        buffer.flip();
+        return new FileContent(new ByteBuffer[]{buffer}, Integer.SIZE - 1, buffer.limit(), false);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    public byte get(long position) {
+        if (position < 0 || position >= size) throw new IndexOutOfBoundsException("position: " + position);
+        return chunks[(int) (position >>> chunkShift)].get((int) (position & chunkMask));
+    }
+
+    /**
+     * Read-only view of {@code length} bytes at {@code position}. Ranges that cross a chunk boundary of a mapped
+     * file are copied instead.
+     */
+    public ByteBuffer slice(long position, int length) {
+        if (position < 0 || length < 0 || position + length > size)
+            throw new IndexOutOfBoundsException("position: " + position + ", length: " + length);
+        int first = (int) (position >>> chunkShift);
+        int offset = (int) (position & chunkMask);
+        if (length == 0 || offset + length <= chunks[first].limit()) {
+            ByteBuffer view = chunks[first].asReadOnlyBuffer();
+            view.position(offset).limit(offset + length);
+            return view.slice();
+        }
+        ByteBuffer copy = ByteBuffer.allocate(length);
+        for (int chunk = first; copy.hasRemaining(); chunk++, offset = 0) {
+            ByteBuffer view = chunks[chunk].asReadOnlyBuffer();
+            view.position(offset).limit(Math.min(view.limit(), offset + copy.remaining()));
+            copy.put(view);
+        }
+        return copy.flip().asReadOnlyBuffer();
+    }
+
+    /**
+     * Read-only views of the chunks in file order; a single buffer unless the file is mapped in several chunks.
+     */
+    public List<ByteBuffer> buffers() {
+        List<ByteBuffer> buffers = new ArrayList<>(chunks.length);
+        for (ByteBuffer chunk : chunks) buffers.add(chunk.asReadOnlyBuffer());
+        return Collections.unmodifiableList(buffers);
+    }
+
+    public String decode(Charset charset) {
+        if (size > Integer.MAX_VALUE) throw new IllegalStateException("Content too large for a String: " + size);
+        return decode(0, (int) size, charset);
+    }
+
+    public String decode(long position, int length, Charset charset) {
+        return charset.decode(slice(position, length)).toString();
+    }
+}
@@ -0,0 +1,250 @@
+package file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends lines from many threads to a file through a single writer thread. Producers enqueue lines without
+ * locking; the writer drains whatever has queued up into one large buffered write and syncs it according to the
+ * {@link Durability} policy. Each {@link #append(String)} returns a future completed once its line is durable.
+ * <p>
+ * Characters the charset cannot encode, such as unpaired surrogates, are written as the charset's replacement bytes
+ * ({@code ?} for UTF-8), so one bad line can neither fail the batch it is written in nor stop the writer.
+ */
+public class GroupCommitWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    public static final class Durability {
+        private static final long NEVER = -1;
+        private final long syncIntervalNanos;
+
+        private Durability(long syncIntervalNanos) {
+            this.syncIntervalNanos = syncIntervalNanos;
+        }
+
+        /**
+         * Syncs after every batch; futures complete once their batch is on disk.
+         */
+        public static Durability perBatch() {
+            return new Durability(0);
+        }
+
+        /**
+         * Syncs at most once per {@code interval}; futures complete at the next sync.
+         */
+        public static Durability every(Duration interval) {
+            if (interval.isNegative() || interval.isZero())
+                throw new IllegalArgumentException("interval must be positive: " + interval);
+            return new Durability(interval.toNanos());
+        }
+
+        /**
+         * Never syncs explicitly; futures complete once their batch is written to the channel.
+         */
+        public static Durability never() {
+            return new Durability(NEVER);
+        }
+    }
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder;
+    private final Durability durability;
+    private final byte[] lineSeparator;
+    private final Queue<PendingLine> queue = new ConcurrentLinkedQueue<>();
+    private final List<CompletableFuture<Void>> awaitingSync = new ArrayList<>();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private long nextSyncNanos;
+
+    private GroupCommitWriter(Path file, Charset charset, Durability durability) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.durability = durability;
+        this.lineSeparator = System.lineSeparator().getBytes(charset);
+        this.nextSyncNanos = System.nanoTime() + durability.syncIntervalNanos;
+        this.writer = new Thread(this::writeLoop, "group-commit-writer-" + file.getFileName());
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Opens {@code file} for appending, creating it if needed, and starts the writer thread.
+     */
+    public static GroupCommitWriter open(Path file, Charset charset, Durability durability) throws IOException {
+        GroupCommitWriter writer = new GroupCommitWriter(file, charset, durability);
+        writer.writer.start();
+        return writer;
+    }
+
+    public CompletableFuture<Void> append(String line) {
+        Objects.requireNonNull(line, "line");
+        if (closed) throw new IllegalStateException("Writer is closed");
+        PendingLine pending = new PendingLine(line);
+        IOException writerFailure = failure;
+        if (writerFailure != null) {
+            pending.future.completeExceptionally(writerFailure);
+            return pending.future;
+        }
+        queue.add(pending);
+        if (closed && queue.remove(pending)) throw new IllegalStateException("Writer is closed");
+        // the writer may have failed and drained the queue between the check above and the add
+        writerFailure = failure;
+        if (writerFailure != null && queue.remove(pending)) pending.future.completeExceptionally(writerFailure);
+        if (writerParked) LockSupport.unpark(writer);
+        return pending.future;
+    }
+
+    private void writeLoop() {
+        List<PendingLine> batch = new ArrayList<>();
+        try {
+            while (true) {
+                drain(batch);
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                    batch.clear();
+                } else if (closed) {
+                    break;
+                } else {
+                    awaitWork();
+                }
+                syncIfDue();
+            }
+            sync();
+        } catch (IOException e) {
+            fail(batch, e);
+        } catch (RuntimeException e) {
+            fail(batch, new IOException("Writer thread failed", e));
+        } catch (Error e) {
+            fail(batch, new IOException("Writer thread failed", e));
+            throw e;
+        }
+    }
+
+    private void drain(List<PendingLine> batch) {
+        PendingLine pending;
+        while (batch.size() < 65536 && (pending = queue.poll()) != null) batch.add(pending);
+    }
+
+    private void awaitWork() {
+        writerParked = true;
+        if (queue.isEmpty() && !closed) {
+            if (awaitingSync.isEmpty() || durability.syncIntervalNanos <= 0) LockSupport.park(this);
+            else LockSupport.parkNanos(this, nextSyncNanos - System.nanoTime());
+        }
+        writerParked = false;
+    }
+
+    private void writeBatch(List<PendingLine> batch) throws IOException {
+        for (PendingLine pending : batch) {
+            encode(pending.line);
+            put(lineSeparator);
+        }
+        flushBuffer();
+        if (durability.syncIntervalNanos == Durability.NEVER) {
+            batch.forEach(pending -> pending.future.complete(null));
+        } else {
+            batch.forEach(pending -> awaitingSync.add(pending.future));
+            if (durability.syncIntervalNanos == 0) sync();
+        }
+    }
+
+    private void encode(String line) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(line);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isUnderflow()) result = encoder.flush(buffer);
+            if (result.isUnderflow()) return;
+            if (result.isOverflow()) flushBuffer();
+            else result.throwException();
+        }
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (buffer.remaining() < bytes.length) flushBuffer();
+        buffer.put(bytes);
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private void syncIfDue() throws IOException {
+        if (durability.syncIntervalNanos > 0 && System.nanoTime() - nextSyncNanos >= 0) {
+            sync();
+            nextSyncNanos = System.nanoTime() + durability.syncIntervalNanos;
+        }
+    }
+
+    private void sync() throws IOException {
+        if (awaitingSync.isEmpty()) return;
+        channel.force(false);
+        awaitingSync.forEach(future -> future.complete(null));
+        awaitingSync.clear();
+    }
+
+    private void fail(List<PendingLine> batch, IOException e) {
+        failure = e;
+        awaitingSync.forEach(future -> future.completeExceptionally(e));
+        awaitingSync.clear();
+        batch.forEach(pending -> pending.future.completeExceptionally(e));
+        PendingLine pending;
+        while ((pending = queue.poll()) != null) pending.future.completeExceptionally(e);
+    }
+
+    /**
+     * Stops accepting lines, writes and syncs everything already appended, then closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while draining pending lines");
+        } finally {
+            channel.close();
+        }
+        PendingLine straggler;
+        while ((straggler = queue.poll()) != null)
+            straggler.future.completeExceptionally(new IllegalStateException("Writer is closed"));
+        if (failure != null) throw failure;
+    }
+
+    private static class PendingLine {
+        private final String line;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingLine(String line) {
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Iterates over the lines of UTF-8 bytes without allocating per line. Unlike {@link java.io.BufferedReader#lines()}
+ * it reports the terminator each line ended with, so the original separators can be reproduced.
+ * <p>
+ * The views returned by {@link #bytes()} and {@link #chars()} are reused and only valid until the next call to
+ * {@link #next()}. Characters are decoded lazily, only when {@link #chars()} is called.
+ */
+public class LineCursor implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    public enum Terminator {
+        LF("\n"), CRLF("\r\n"), CR("\r"), NONE("");
+
+        private final String separator;
+
+        Terminator(String separator) {
+            this.separator = separator;
+        }
+
+        public String separator() {
+            return separator;
+        }
+    }
+
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer buffer;
+    private ByteBuffer bytesView;
+    private ByteBuffer decodeView;
+    private CharBuffer chars;
+    private CharBuffer charsView;
+    private boolean endOfInput;
+
+    private int lineStart;
+    private int lineEnd;
+    private int nextLineStart;
+    private Terminator terminator;
+    private boolean decoded;
+
+    private LineCursor(ReadableByteChannel channel, ByteBuffer buffer, boolean endOfInput) {
+        this.channel = channel;
+        this.endOfInput = endOfInput;
+        useBuffer(buffer);
+        this.chars = CharBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        this.charsView = chars.asReadOnlyBuffer();
+    }
+
+    public static LineCursor of(ReadableByteChannel channel) {
+        return new LineCursor(channel, ByteBuffer.allocate(DEFAULT_BUFFER_SIZE).flip(), false);
+    }
+
+    public static LineCursor of(InputStream is) {
+        return of(Channels.newChannel(is));
+    }
+
+    /**
+     * Iterates over the remaining bytes of {@code source}, e.g. a mapped file, without copying them.
+     */
+    public static LineCursor of(ByteBuffer source) {
+        return new LineCursor(null, source.slice(), true);
+    }
+
+    private void useBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.bytesView = buffer.asReadOnlyBuffer();
+        this.decodeView = buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Advances to the next line, returning {@code false} once the input is exhausted.
+     */
+    public boolean next() throws IOException {
+        int scanFrom = nextLineStart;
+        while (true) {
+            for (int i = scanFrom; i < buffer.limit(); i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') return line(i, i + 1, Terminator.LF);
+                if (b == '\r') {
+                    if (i + 1 < buffer.limit() && buffer.get(i + 1) == '\n') return line(i, i + 2, Terminator.CRLF);
+                    if (i + 1 < buffer.limit()) return line(i, i + 1, Terminator.CR);
+                    if (endOfInput) return line(i, i + 1, Terminator.CR);
+                    break;
+                }
+                scanFrom = i + 1;
+            }
+            if (endOfInput) {
+                if (nextLineStart == buffer.limit()) return false;
+                return line(buffer.limit(), buffer.limit(), Terminator.NONE);
+            }
+            scanFrom -= fill();
+        }
+    }
+
+    private boolean line(int end, int next, Terminator terminator) {
+        this.lineStart = nextLineStart;
+        this.lineEnd = end;
+        this.nextLineStart = next;
+        this.terminator = terminator;
+        this.decoded = false;
+        return true;
+    }
+
+    /**
+     * Discards consumed bytes and reads more input, growing the buffer if a single line fills it. Returns by how much
+     * the unconsumed bytes moved towards the start of the buffer.
+     */
+    private int fill() throws IOException {
+        int shift = nextLineStart;
+        buffer.position(nextLineStart);
+        if (shift == 0 && buffer.limit() == buffer.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+            grown.put(buffer);
+            useBuffer(grown);
+        } else {
+            buffer.compact();
+        }
+        nextLineStart = 0;
+        if (channel.read(buffer) < 0) endOfInput = true;
+        buffer.flip();
+        return shift;
+    }
+
+    /**
+     * Bytes of the current line without its terminator.
+     */
+    public ByteBuffer bytes() {
+        bytesView.limit(lineEnd).position(lineStart);
+        return bytesView;
+    }
+
+    public int length() {
+        return lineEnd - lineStart;
+    }
+
+    public Terminator terminator() {
+        return terminator;
+    }
+
+    /**
+     * Characters of the current line without its terminator, decoded on first access.
+     */
+    public CharSequence chars() {
+        if (!decoded) {
+            decode();
+            decoded = true;
+        }
+        return charsView;
+    }
+
+    private void decode() {
+        if (chars.capacity() < length()) {
+            chars = CharBuffer.allocate(Math.max(length(), chars.capacity() * 2));
+            charsView = chars.asReadOnlyBuffer();
+        }
+        decodeView.limit(lineEnd).position(lineStart);
+        chars.clear();
+        decoder.reset();
+        decoder.decode(decodeView, chars, true);
+        decoder.flush(chars);
+        charsView.limit(chars.position()).position(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+}
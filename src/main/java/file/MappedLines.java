@@ -0,0 +1,168 @@
+package file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Line streams over memory-mapped files whose spliterator splits at line boundaries, so parallel streams divide a
+ * large file evenly between threads instead of buffering batches like {@link java.nio.file.Files#lines(Path)}.
+ * <p>
+ * Lines are terminated by {@code \n} with an optional preceding {@code \r}; a lone {@code \r} is not a terminator.
+ * The charset must encode {@code \n} and {@code \r} as single bytes, as UTF-8 and ISO-8859-1 do.
+ */
+public final class MappedLines {
+    static final int MIN_SPLIT_SIZE = 64 * 1024;
+    private static final int WINDOW_SIZE = 32 * 1024 * 1024;
+
+    private MappedLines() {
+    }
+
+    /**
+     * Lines of {@code file}; the stream must be closed to release the underlying channel.
+     */
+    public static Stream<String> lines(Path file, Charset charset) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            LineSpliterator spliterator = new LineSpliterator(channel, charset, 0, channel.size());
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static class LineSpliterator implements Spliterator<String> {
+        private final FileChannel channel;
+        private final Charset charset;
+        private long position;
+        private final long end;
+
+        private MappedByteBuffer window;
+        private long windowStart;
+        private byte[] lineBytes = new byte[256];
+
+        LineSpliterator(FileChannel channel, Charset charset, long start, long end) {
+            this.channel = channel;
+            this.charset = charset;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (position >= end) return false;
+            try {
+                action.accept(readLine());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            try {
+                while (position < end) action.accept(readLine());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private String readLine() throws IOException {
+            long newline = findNewline();
+            long lineEnd = newline < 0 ? end : newline;
+            long next = newline < 0 ? end : newline + 1;
+            if (newline >= 0 && lineEnd > position && byteAt(lineEnd - 1) == '\r') lineEnd--;
+
+            int length = (int) (lineEnd - position);
+            if (lineBytes.length < length) lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+            window.duplicate().position((int) (position - windowStart)).get(lineBytes, 0, length);
+            position = next;
+            return new String(lineBytes, 0, length, charset);
+        }
+
+        /**
+         * Absolute position of the next {@code \n} at or after {@link #position}, or -1 if the split ends first.
+         * Leaves {@link #window} mapped over the whole line.
+         */
+        private long findNewline() throws IOException {
+            if (window == null || position >= windowStart + window.limit()) map(position, WINDOW_SIZE);
+            while (true) {
+                for (int i = (int) (position - windowStart); i < window.limit(); i++)
+                    if (window.get(i) == '\n') return windowStart + i;
+                long windowEnd = windowStart + window.limit();
+                if (windowEnd >= end) return -1;
+                long lineSoFar = windowEnd - position;
+                if (lineSoFar + WINDOW_SIZE > Integer.MAX_VALUE)
+                    throw new IOException("Line at position " + position + " is too long to map");
+                map(position, lineSoFar + WINDOW_SIZE);
+            }
+        }
+
+        private void map(long start, long size) throws IOException {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size, end - start));
+        }
+
+        private byte byteAt(long absolute) {
+            return window.get((int) (absolute - windowStart));
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            long remaining = end - position;
+            if (remaining < 2L * MIN_SPLIT_SIZE) return null;
+            try {
+                long split = nextLineStart(position + remaining / 2);
+                if (split <= position || split >= end) return null;
+                LineSpliterator prefix = new LineSpliterator(channel, charset, position, split);
+                position = split;
+                window = null;
+                return prefix;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private long nextLineStart(long from) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long scan = from - 1;
+            while (scan < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - scan));
+                int read = channel.read(buffer, scan);
+                if (read <= 0) return end;
+                for (int i = 0; i < read; i++)
+                    if (buffer.get(i) == '\n') return scan + i + 1;
+                scan += read;
+            }
+            return end;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches file metadata so that repeated {@code Files.exists}, {@code isRegularFile}, {@code isDirectory},
+ * {@code size} and similar checks on the same paths cost one {@code readAttributes} call instead of one syscall
+ * each. Entries are invalidated by a {@link WatchService} registered on their parent directory; where that is not
+ * possible they expire after a time-to-live instead, and registering the directory is retried once that has passed.
+ * Like {@link Files}, the checks follow symbolic links, except {@link #isSymbolicLink(Path)}.
+ * <p>
+ * Watch events are delivered asynchronously, so a watched entry can be stale for as long as the file system takes
+ * to report a change. Watched entries also expire after a longer time-to-live, bounding how long a missed event can
+ * leave them stale, and an overflow of the event queue clears the whole cache. Changes to the target of a symbolic
+ * link in another directory are only noticed through expiry.
+ */
+public class MetadataCache implements Closeable {
+    private static final Duration MIN_WATCHED_TTL = Duration.ofMinutes(1);
+
+    private final Duration ttl;
+    private final Duration watchedTtl;
+    private final Clock clock;
+    private final ConcurrentMap<Path, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<FileSystem, Watcher> watchers = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder hitStalenessMillis = new LongAdder();
+    private final LongAccumulator maxHitStalenessMillis = new LongAccumulator(Math::max, 0);
+    private volatile boolean closed;
+
+    public MetadataCache(Duration ttl) {
+        this(ttl, Clock.systemUTC());
+    }
+
+    /**
+     * Watched entries expire after {@code ttl} or one minute, whichever is longer.
+     *
+     * @param ttl how long entries stay valid when their parent directory cannot be watched
+     */
+    public MetadataCache(Duration ttl, Clock clock) {
+        this(ttl, ttl.compareTo(MIN_WATCHED_TTL) > 0 ? ttl : MIN_WATCHED_TTL, clock);
+    }
+
+    /**
+     * @param ttl        how long entries stay valid when their parent directory cannot be watched
+     * @param watchedTtl how long entries stay valid when their parent directory is watched
+     */
+    public MetadataCache(Duration ttl, Duration watchedTtl, Clock clock) {
+        this.ttl = ttl;
+        this.watchedTtl = watchedTtl;
+        this.clock = clock;
+    }
+
+    public boolean exists(Path path) throws IOException {
+        return get(path).exists();
+    }
+
+    public boolean isRegularFile(Path path) throws IOException {
+        Snapshot snapshot = get(path);
+        return snapshot.exists() && snapshot.attributes().isRegularFile();
+    }
+
+    public boolean isDirectory(Path path) throws IOException {
+        Snapshot snapshot = get(path);
+        return snapshot.exists() && snapshot.attributes().isDirectory();
+    }
+
+    public boolean isSymbolicLink(Path path) throws IOException {
+        return get(path).isSymbolicLink();
+    }
+
+    public long size(Path path) throws IOException {
+        return existing(path).size();
+    }
+
+    public FileTime lastModifiedTime(Path path) throws IOException {
+        return existing(path).lastModifiedTime();
+    }
+
+    /**
+     * Same as {@link Files#getAttribute} for the {@code basic} view, e.g. {@code "creationTime"} or
+     * {@code "basic:lastAccessTime"}.
+     */
+    public Object getAttribute(Path path, String attribute) throws IOException {
+        BasicFileAttributes attributes = existing(path);
+        String name = attribute.startsWith("basic:") ? attribute.substring("basic:".length()) : attribute;
+        switch (name) {
+            case "lastModifiedTime":
+                return attributes.lastModifiedTime();
+            case "lastAccessTime":
+                return attributes.lastAccessTime();
+            case "creationTime":
+                return attributes.creationTime();
+            case "size":
+                return attributes.size();
+            case "isRegularFile":
+                return attributes.isRegularFile();
+            case "isDirectory":
+                return attributes.isDirectory();
+            case "isSymbolicLink":
+                return attributes.isSymbolicLink();
+            case "isOther":
+                return attributes.isOther();
+            case "fileKey":
+                return attributes.fileKey();
+            default:
+                throw new IllegalArgumentException("'" + attribute + "' not recognized");
+        }
+    }
+
+    private BasicFileAttributes existing(Path path) throws IOException {
+        Snapshot snapshot = get(path);
+        if (!snapshot.exists()) throw new NoSuchFileException(path.toString());
+        return snapshot.attributes();
+    }
+
+    public Snapshot get(Path path) throws IOException {
+        if (closed) throw new IllegalStateException("Cache is closed");
+        Path key = path.toAbsolutePath().normalize();
+        Instant now = clock.instant();
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && !now.isBefore(snapshot.loadedAt.plus(snapshot.watched ? watchedTtl : ttl))) {
+            if (snapshots.remove(key, snapshot)) expirations.increment();
+            snapshot = null;
+        }
+        if (snapshot != null) {
+            long staleness = Duration.between(snapshot.loadedAt, now).toMillis();
+            hits.increment();
+            hitStalenessMillis.add(staleness);
+            maxHitStalenessMillis.accumulate(staleness);
+            return snapshot;
+        }
+        misses.increment();
+        return load(key, now);
+    }
+
+    private Snapshot load(Path key, Instant now) throws IOException {
+        long sequence = invalidationSequence.get();
+        boolean watched = key.getParent() != null && watch(key.getParent(), now);
+        BasicFileAttributes attributes;
+        boolean symbolicLink = false;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (attributes.isSymbolicLink()) {
+                symbolicLink = true;
+                attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            }
+        } catch (NoSuchFileException e) {
+            attributes = null;
+        }
+        Snapshot snapshot = new Snapshot(attributes, symbolicLink, now, watched);
+        if (invalidationSequence.get() == sequence) snapshots.put(key, snapshot);
+        return snapshot;
+    }
+
+    private boolean watch(Path dir, Instant now) {
+        return watchers.computeIfAbsent(dir.getFileSystem(), this::startWatcher).register(dir, now);
+    }
+
+    private Watcher startWatcher(FileSystem fs) {
+        WatchService watchService;
+        try {
+            watchService = fs.newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            return new Watcher(null);
+        }
+        Watcher watcher = new Watcher(watchService);
+        Thread thread = new Thread(watcher::run, "metadata-cache-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return watcher;
+    }
+
+    public void invalidate(Path path) {
+        invalidationSequence.incrementAndGet();
+        if (snapshots.remove(path.toAbsolutePath().normalize()) != null) invalidations.increment();
+    }
+
+    private void invalidateChildren(Path dir) {
+        invalidationSequence.incrementAndGet();
+        for (Path path : snapshots.keySet())
+            if (dir.equals(path.getParent()) && snapshots.remove(path) != null) invalidations.increment();
+    }
+
+    private void invalidateAll() {
+        invalidationSequence.incrementAndGet();
+        for (Path path : snapshots.keySet())
+            if (snapshots.remove(path) != null) invalidations.increment();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), invalidations.sum(), expirations.sum(),
+                Duration.ofMillis(hits.sum() == 0 ? 0 : hitStalenessMillis.sum() / hits.sum()),
+                Duration.ofMillis(maxHitStalenessMillis.get()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        IOException failure = null;
+        for (Watcher watcher : watchers.values()) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        snapshots.clear();
+        if (failure != null) throw failure;
+    }
+
+    public static class Snapshot {
+        private final BasicFileAttributes attributes;
+        private final boolean symbolicLink;
+        private final Instant loadedAt;
+        private final boolean watched;
+
+        Snapshot(BasicFileAttributes attributes, boolean symbolicLink, Instant loadedAt, boolean watched) {
+            this.attributes = attributes;
+            this.symbolicLink = symbolicLink;
+            this.loadedAt = loadedAt;
+            this.watched = watched;
+        }
+
+        /**
+         * Whether the file, or the target of the symbolic link, existed.
+         */
+        public boolean exists() {
+            return attributes != null;
+        }
+
+        /**
+         * Whether the path itself was a symbolic link, even one whose target did not exist.
+         */
+        public boolean isSymbolicLink() {
+            return symbolicLink;
+        }
+
+        /**
+         * Attributes read when the snapshot was taken, following symbolic links, or {@code null} if the file did not
+         * exist.
+         */
+        public BasicFileAttributes attributes() {
+            return attributes;
+        }
+
+        public Instant loadedAt() {
+            return loadedAt;
+        }
+
+        /**
+         * Whether the snapshot is invalidated by watch events rather than expiring after the time-to-live.
+         */
+        public boolean watched() {
+            return watched;
+        }
+    }
+
+    /**
+     * Registers parent directories with one watch service per file system and invalidates cached entries from a
+     * daemon thread as events arrive. Without a watch service no directory can be registered. A directory that fails
+     * to register is retried once the time-to-live has passed.
+     */
+    private class Watcher implements Closeable {
+        private final WatchService watchService;
+        private final ConcurrentMap<Path, Object> registrations = new ConcurrentHashMap<>();
+        private final ConcurrentMap<WatchKey, Path> directories = new ConcurrentHashMap<>();
+
+        private Watcher(WatchService watchService) {
+            this.watchService = watchService;
+        }
+
+        boolean register(Path dir, Instant now) {
+            if (watchService == null) return false;
+            Object registration = registrations.get(dir);
+            if (registration instanceof WatchKey) return true;
+            if (registration instanceof Instant && now.isBefore(((Instant) registration).plus(ttl))) return false;
+            registration = registrations.compute(dir, (d, previous) -> {
+                if (previous instanceof WatchKey) return previous;
+                try {
+                    WatchKey key = d.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                    directories.put(key, d);
+                    return key;
+                } catch (IOException | UnsupportedOperationException e) {
+                    // the time of the failure, to retry after the time-to-live
+                    return now;
+                }
+            });
+            return registration instanceof WatchKey;
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    Path dir = directories.get(key);
+                    if (dir == null) continue;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) invalidateAll();
+                        else invalidate(dir.resolve((Path) event.context()));
+                    }
+                    if (!key.reset()) {
+                        directories.remove(key);
+                        registrations.remove(dir);
+                        invalidateChildren(dir);
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // cache closed
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (watchService != null) watchService.close();
+        }
+    }
+
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long invalidations;
+        private final long expirations;
+        private final Duration averageHitStaleness;
+        private final Duration maxHitStaleness;
+
+        Stats(long hits, long misses, long invalidations, long expirations, Duration averageHitStaleness,
+              Duration maxHitStaleness) {
+            this.hits = hits;
+            this.misses = misses;
+            this.invalidations = invalidations;
+            this.expirations = expirations;
+            this.averageHitStaleness = averageHitStaleness;
+            this.maxHitStaleness = maxHitStaleness;
+        }
+
+        public long hits() {
+            return hits;
+        }
+
+        public long misses() {
+            return misses;
+        }
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        public long invalidations() {
+            return invalidations;
+        }
+
+        public long expirations() {
+            return expirations;
+        }
+
+        /**
+         * Average age of the snapshots served from the cache.
+         */
+        public Duration averageHitStaleness() {
+            return averageHitStaleness;
+        }
+
+        public Duration maxHitStaleness() {
+            return maxHitStaleness;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hits + ", misses=" + misses + ", invalidations=" + invalidations + ", expirations="
+                    + expirations + ", averageHitStaleness=" + averageHitStaleness + ", maxHitStaleness="
+                    + maxHitStaleness + "}";
+        }
+    }
+}
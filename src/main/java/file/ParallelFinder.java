@@ -0,0 +1,303 @@
+package file;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Parallel counterpart of {@link Files#find}. Subdirectories are walked as fork/join tasks and matches are emitted
+ * as soon as they are found, together with the {@link BasicFileAttributes} read during the walk so neither the
+ * matcher nor the consumer has to stat the file again. Matches arrive in no particular order.
+ */
+public class ParallelFinder {
+    private static final int QUEUE_CAPACITY = 1024;
+
+    public static class Match {
+        private final Path path;
+        private final BasicFileAttributes attributes;
+
+        Match(Path path, BasicFileAttributes attributes) {
+            this.path = path;
+            this.attributes = attributes;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        public BasicFileAttributes attributes() {
+            return attributes;
+        }
+    }
+
+    public interface MatchConsumer {
+        /**
+         * Receives a match, possibly from several threads at once. Returning {@code false} stops the walk.
+         */
+        boolean accept(Match match);
+    }
+
+    private final ForkJoinPool pool;
+    private final int maxDepth;
+    private final boolean followLinks;
+
+    public ParallelFinder(int maxDepth, FileVisitOption... options) {
+        this(ForkJoinPool.commonPool(), maxDepth, options);
+    }
+
+    /**
+     * @param maxDepth same as for {@link Files#find}: 0 only considers the start path itself
+     */
+    public ParallelFinder(ForkJoinPool pool, int maxDepth, FileVisitOption... options) {
+        if (maxDepth < 0) throw new IllegalArgumentException("maxDepth must not be negative: " + maxDepth);
+        this.pool = pool;
+        this.maxDepth = maxDepth;
+        this.followLinks = Arrays.asList(options).contains(FileVisitOption.FOLLOW_LINKS);
+    }
+
+    /**
+     * Passes matches to {@code consumer} and returns once the walk is complete or the consumer stopped it.
+     */
+    public void find(Path start, BiPredicate<Path, BasicFileAttributes> matcher, MatchConsumer consumer)
+            throws IOException {
+        Walk walk = new Walk(matcher, consumer);
+        pool.invoke(walk.root(start));
+        walk.rethrowFailure();
+    }
+
+    /**
+     * Matches as a stream fed by a bounded queue while the walk runs in the background. Like {@link Files#find}, the
+     * stream must be closed, which also stops the walk if it has not finished.
+     */
+    public Stream<Match> find(Path start, BiPredicate<Path, BasicFileAttributes> matcher) {
+        QueueSpliterator spliterator = new QueueSpliterator();
+        Walk walk = new Walk(matcher, spliterator::offer);
+        spliterator.walk = walk;
+        pool.execute(() -> {
+            try {
+                walk.root(start).invoke();
+            } catch (Throwable e) {
+                walk.fail(e);
+            } finally {
+                spliterator.finish();
+            }
+        });
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    private class Walk {
+        private final BiPredicate<Path, BasicFileAttributes> matcher;
+        private final MatchConsumer consumer;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean stopped;
+
+        Walk(BiPredicate<Path, BasicFileAttributes> matcher, MatchConsumer consumer) {
+            this.matcher = matcher;
+            this.consumer = consumer;
+        }
+
+        RecursiveAction root(Path start) {
+            return new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    try {
+                        visit(start, readAttributes(start), 0, null, null);
+                    } catch (IOException e) {
+                        fail(e);
+                    }
+                }
+            };
+        }
+
+        private void visit(Path path, BasicFileAttributes attributes, int depth, Ancestor parent,
+                           List<RecursiveAction> subtasks) throws IOException {
+            if (stopped) return;
+            if (matcher.test(path, attributes) && !consumer.accept(new Match(path, attributes))) stopped = true;
+            if (!attributes.isDirectory() || depth >= maxDepth || stopped) return;
+            if (followLinks && parent != null && parent.contains(attributes.fileKey()))
+                throw new FileSystemLoopException(path.toString());
+
+            WalkDirectory task = new WalkDirectory(this, path, depth, new Ancestor(attributes.fileKey(), parent));
+            if (subtasks == null) task.compute();
+            else subtasks.add(task);
+        }
+
+        private BasicFileAttributes readAttributes(Path path) throws IOException {
+            if (!followLinks) return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            try {
+                return Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (IOException e) {
+                return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            }
+        }
+
+        private void fail(Throwable e) {
+            failure.compareAndSet(null, e);
+            stopped = true;
+        }
+
+        void stop() {
+            stopped = true;
+        }
+
+        void rethrowFailure() throws IOException {
+            Throwable e = failure.get();
+            if (e instanceof IOException) throw (IOException) e;
+            if (e instanceof RuntimeException) throw (RuntimeException) e;
+            if (e instanceof Error) throw (Error) e;
+        }
+    }
+
+    /**
+     * Chain of directories from the start to the one being walked, used to detect cycles when following links.
+     */
+    private static class Ancestor {
+        private final Object fileKey;
+        private final Ancestor parent;
+
+        Ancestor(Object fileKey, Ancestor parent) {
+            this.fileKey = fileKey;
+            this.parent = parent;
+        }
+
+        boolean contains(Object key) {
+            if (key == null) return false;
+            for (Ancestor ancestor = this; ancestor != null; ancestor = ancestor.parent)
+                if (key.equals(ancestor.fileKey)) return true;
+            return false;
+        }
+    }
+
+    private static class WalkDirectory extends RecursiveAction {
+        private final Walk walk;
+        private final Path dir;
+        private final int depth;
+        private final Ancestor ancestors;
+
+        WalkDirectory(Walk walk, Path dir, int depth, Ancestor ancestors) {
+            this.walk = walk;
+            this.dir = dir;
+            this.depth = depth;
+            this.ancestors = ancestors;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                for (Path child : children) {
+                    if (walk.stopped) break;
+                    walk.visit(child, walk.readAttributes(child), depth + 1, ancestors, subtasks);
+                }
+            } catch (IOException e) {
+                walk.fail(e);
+            } catch (DirectoryIteratorException e) {
+                walk.fail(e.getCause());
+            }
+            invokeAll(subtasks);
+        }
+    }
+
+    private static class QueueSpliterator extends Spliterators.AbstractSpliterator<Match> {
+        private static final Match END = new Match(null, null);
+
+        private final BlockingQueue<Match> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private Walk walk;
+        private volatile boolean closed;
+
+        QueueSpliterator() {
+            super(Long.MAX_VALUE, Spliterator.NONNULL);
+        }
+
+        boolean offer(Match match) {
+            try {
+                return put(match);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                walk.fail(new InterruptedIOException("Interrupted while queueing match"));
+                return false;
+            }
+        }
+
+        void finish() {
+            try {
+                put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Waits for room in the queue as a {@link ForkJoinPool.ManagedBlocker}, so the pool can compensate for
+         * workers held up by a slow consumer. Returns {@code false} if the stream was closed first.
+         */
+        private boolean put(Match match) throws InterruptedException {
+            ForkJoinPool.ManagedBlocker blocker = new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    while (!closed)
+                        if (queue.offer(match, 10, TimeUnit.MILLISECONDS)) return true;
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return closed || queue.offer(match);
+                }
+            };
+            ForkJoinPool.managedBlock(blocker);
+            return !closed;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Match> action) {
+            Match match;
+            try {
+                match = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted while awaiting match"));
+            }
+            if (match == END) {
+                queue.add(END);
+                try {
+                    walk.rethrowFailure();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return false;
+            }
+            action.accept(match);
+            return true;
+        }
+
+        void close() {
+            closed = true;
+            walk.stop();
+            queue.clear();
+        }
+    }
+}
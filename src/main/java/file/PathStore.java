@@ -0,0 +1,334 @@
+package file;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Compact store for large numbers of paths. Each path is a node in a trie of interned name segments and is referred
+ * to by an {@code int} handle, so paths sharing a prefix share its storage. Segments are kept as UTF-8 bytes in a
+ * single pool rather than as {@code String} objects. Navigation and comparison work on the handles without
+ * allocating, while {@link #intern(Path)} and {@link #toPath(int, FileSystem)} convert from and to {@link Path} for
+ * any file system.
+ * <p>
+ * Handles are never reused and stay valid for the life of the store. {@link #NONE} stands for a missing path, like
+ * {@code null} does for {@link Path#getParent()}. The store is not thread-safe.
+ */
+public class PathStore {
+    public static final int NONE = -1;
+    private static final int EMPTY = 0;
+    private static final long FREE_SLOT = -1L;
+
+    private static final byte[] DOT = {'.'};
+    private static final byte[] DOT_DOT = {'.', '.'};
+
+    private byte[] segmentBytes = new byte[1024];
+    private int[] segmentOffsets = new int[65];
+    private int segmentCount;
+    private int[] segmentTable = new int[128];
+
+    private int[] parents = new int[64];
+    private int[] nodeSegments = new int[64];
+    private int[] nameCounts = new int[64];
+    private int nodeCount;
+
+    private long[] childKeys;
+    private int[] childNodes;
+    private int childCount;
+
+    public PathStore() {
+        childKeys = new long[128];
+        Arrays.fill(childKeys, FREE_SLOT);
+        childNodes = new int[128];
+        parents[EMPTY] = NONE;
+        nodeSegments[EMPTY] = NONE;
+        nodeCount = 1;
+    }
+
+    public int intern(Path path) {
+        int node = EMPTY;
+        Path root = path.getRoot();
+        if (root != null) node = child(node, segmentId(root.toString()), true);
+        for (Path name : path) node = child(node, segmentId(name.toString()), false);
+        return node;
+    }
+
+    public Path toPath(int handle, FileSystem fs) {
+        String[] names = new String[nameCount(handle)];
+        int node = handle;
+        for (int i = names.length - 1; i >= 0; i--) {
+            names[i] = segment(nodeSegments[node]);
+            node = parents[node];
+        }
+        if (node != EMPTY) return fs.getPath(segment(nodeSegments[node]), names);
+        if (names.length == 0) return fs.getPath("");
+        return fs.getPath(names[0], Arrays.copyOfRange(names, 1, names.length));
+    }
+
+    /**
+     * Same as {@link Path#resolve(String)} for a single name without separators.
+     */
+    public int resolve(int handle, String name) {
+        return child(handle, segmentId(name), false);
+    }
+
+    public boolean isAbsolute(int handle) {
+        return root(handle) != EMPTY;
+    }
+
+    public int getRoot(int handle) {
+        int root = root(handle);
+        return root == EMPTY ? NONE : root;
+    }
+
+    private int root(int handle) {
+        int node = handle;
+        for (int i = nameCounts[handle]; i > 0; i--) node = parents[node];
+        return node;
+    }
+
+    public int getParent(int handle) {
+        if (nameCounts[handle] == 0) return NONE;
+        int parent = parents[handle];
+        return parent == EMPTY ? NONE : parent;
+    }
+
+    public int nameCount(int handle) {
+        return nameCounts[handle];
+    }
+
+    /**
+     * Last name of the path, or {@code null} for a root or the empty path.
+     */
+    public String fileName(int handle) {
+        return nameCounts[handle] == 0 ? null : segment(nodeSegments[handle]);
+    }
+
+    /**
+     * Same as {@code getName(index).toString()}, where index 0 is the name closest to the root.
+     */
+    public String getName(int handle, int index) {
+        if (index < 0 || index >= nameCounts[handle]) throw new IllegalArgumentException("index: " + index);
+        return segment(nodeSegments[ancestor(handle, nameCounts[handle] - index - 1)]);
+    }
+
+    private int ancestor(int handle, int levels) {
+        int node = handle;
+        for (int i = 0; i < levels; i++) node = parents[node];
+        return node;
+    }
+
+    public boolean startsWith(int handle, int prefix) {
+        int levels = nameCounts[handle] - nameCounts[prefix];
+        return levels >= 0 && ancestor(handle, levels) == prefix;
+    }
+
+    /**
+     * Same as {@link Path#endsWith(Path)}: an absolute suffix only matches the whole path.
+     */
+    public boolean endsWith(int handle, int suffix) {
+        if (isAbsolute(suffix)) return handle == suffix;
+        if (nameCounts[suffix] > nameCounts[handle]) return false;
+        int node = handle;
+        int suffixNode = suffix;
+        for (int i = nameCounts[suffix]; i > 0; i--) {
+            if (nodeSegments[node] != nodeSegments[suffixNode]) return false;
+            node = parents[node];
+            suffixNode = parents[suffixNode];
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link Path#relativize(Path)}; both paths must be absolute with the same root, or both relative.
+     */
+    public int relativize(int from, int to) {
+        if (root(from) != root(to)) throw new IllegalArgumentException("Paths have different roots");
+        int common = commonAncestor(from, to);
+        int result = EMPTY;
+        int dotDot = segmentId(DOT_DOT);
+        for (int i = nameCounts[from] - nameCounts[common]; i > 0; i--) result = child(result, dotDot, false);
+        return appendNamesBelow(result, to, common);
+    }
+
+    private int appendNamesBelow(int base, int node, int ancestor) {
+        if (node == ancestor) return base;
+        int parent = appendNamesBelow(base, parents[node], ancestor);
+        return child(parent, nodeSegments[node], false);
+    }
+
+    private int commonAncestor(int a, int b) {
+        int depthA = nameCounts[a];
+        int depthB = nameCounts[b];
+        for (; depthA > depthB; depthA--) a = parents[a];
+        for (; depthB > depthA; depthB--) b = parents[b];
+        while (a != b) {
+            a = parents[a];
+            b = parents[b];
+        }
+        return a;
+    }
+
+    /**
+     * Same as {@link Path#normalize()}: removes {@code .} names and {@code ..} names preceded by a non-{@code ..}
+     * name.
+     */
+    public int normalize(int handle) {
+        if (nameCounts[handle] == 0) return handle;
+        int parent = normalize(parents[handle]);
+        int name = nodeSegments[handle];
+        if (segmentEquals(name, DOT)) return parent;
+        if (segmentEquals(name, DOT_DOT)) {
+            if (nameCounts[parent] > 0 && !segmentEquals(nodeSegments[parent], DOT_DOT)) return parents[parent];
+            if (nameCounts[parent] == 0 && parent != EMPTY) return parent;
+        }
+        return parent == parents[handle] ? handle : child(parent, name, false);
+    }
+
+    /**
+     * Orders relative paths before absolute ones, then by root, then name by name in UTF-8 byte order.
+     */
+    public int compare(int a, int b) {
+        if (a == b) return 0;
+        int rootA = root(a);
+        int rootB = root(b);
+        if (rootA != rootB) {
+            if (rootA == EMPTY) return -1;
+            if (rootB == EMPTY) return 1;
+            return compareSegments(nodeSegments[rootA], nodeSegments[rootB]);
+        }
+        int depthA = nameCounts[a];
+        int depthB = nameCounts[b];
+        int nodeA = a;
+        int nodeB = b;
+        for (; depthA > depthB; depthA--) nodeA = parents[nodeA];
+        for (; depthB > depthA; depthB--) nodeB = parents[nodeB];
+        if (nodeA == nodeB) return Integer.compare(nameCounts[a], nameCounts[b]);
+        while (parents[nodeA] != parents[nodeB]) {
+            nodeA = parents[nodeA];
+            nodeB = parents[nodeB];
+        }
+        return compareSegments(nodeSegments[nodeA], nodeSegments[nodeB]);
+    }
+
+    /**
+     * Number of distinct paths, including every prefix of an interned path.
+     */
+    public int size() {
+        return nodeCount - 1;
+    }
+
+    public int segmentCount() {
+        return segmentCount;
+    }
+
+    private int child(int parent, int segment, boolean root) {
+        long key = ((long) parent << 32) | segment;
+        int mask = childKeys.length - 1;
+        int slot = mix(key) & mask;
+        while (childKeys[slot] != FREE_SLOT) {
+            if (childKeys[slot] == key) return childNodes[slot];
+            slot = (slot + 1) & mask;
+        }
+        int node = addNode(parent, segment, root ? 0 : nameCounts[parent] + 1);
+        childKeys[slot] = key;
+        childNodes[slot] = node;
+        if (++childCount * 2 > childKeys.length) growChildTable();
+        return node;
+    }
+
+    private String segment(int id) {
+        int start = segmentOffsets[id];
+        return new String(segmentBytes, start, segmentOffsets[id + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    private boolean segmentEquals(int id, byte[] name) {
+        int start = segmentOffsets[id];
+        return Arrays.equals(segmentBytes, start, segmentOffsets[id + 1], name, 0, name.length);
+    }
+
+    private int compareSegments(int a, int b) {
+        return Arrays.compareUnsigned(segmentBytes, segmentOffsets[a], segmentOffsets[a + 1],
+                segmentBytes, segmentOffsets[b], segmentOffsets[b + 1]);
+    }
+
+    private int segmentId(String name) {
+        return segmentId(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int segmentId(byte[] name) {
+        int mask = segmentTable.length - 1;
+        int slot = hash(name, 0, name.length) & mask;
+        while (segmentTable[slot] != 0) {
+            int id = segmentTable[slot] - 1;
+            if (segmentEquals(id, name)) return id;
+            slot = (slot + 1) & mask;
+        }
+        int id = addSegment(name);
+        segmentTable[slot] = id + 1;
+        if (segmentCount * 2 > segmentTable.length) growSegmentTable();
+        return id;
+    }
+
+    private int addSegment(byte[] name) {
+        int start = segmentOffsets[segmentCount];
+        if (start + name.length > segmentBytes.length)
+            segmentBytes = Arrays.copyOf(segmentBytes, Math.max(start + name.length, segmentBytes.length * 2));
+        if (segmentCount + 2 > segmentOffsets.length)
+            segmentOffsets = Arrays.copyOf(segmentOffsets, segmentOffsets.length * 2);
+        System.arraycopy(name, 0, segmentBytes, start, name.length);
+        segmentOffsets[segmentCount + 1] = start + name.length;
+        return segmentCount++;
+    }
+
+    private void growSegmentTable() {
+        segmentTable = new int[segmentTable.length * 2];
+        int mask = segmentTable.length - 1;
+        for (int id = 0; id < segmentCount; id++) {
+            int slot = hash(segmentBytes, segmentOffsets[id], segmentOffsets[id + 1]) & mask;
+            while (segmentTable[slot] != 0) slot = (slot + 1) & mask;
+            segmentTable[slot] = id + 1;
+        }
+    }
+
+    private int addNode(int parent, int segment, int nameCount) {
+        if (nodeCount == parents.length) {
+            int capacity = nodeCount * 2;
+            parents = Arrays.copyOf(parents, capacity);
+            nodeSegments = Arrays.copyOf(nodeSegments, capacity);
+            nameCounts = Arrays.copyOf(nameCounts, capacity);
+        }
+        parents[nodeCount] = parent;
+        nodeSegments[nodeCount] = segment;
+        nameCounts[nodeCount] = nameCount;
+        return nodeCount++;
+    }
+
+    private void growChildTable() {
+        long[] oldKeys = childKeys;
+        int[] oldNodes = childNodes;
+        childKeys = new long[oldKeys.length * 2];
+        Arrays.fill(childKeys, FREE_SLOT);
+        childNodes = new int[oldNodes.length * 2];
+        int mask = childKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE_SLOT) continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while (childKeys[slot] != FREE_SLOT) slot = (slot + 1) & mask;
+            childKeys[slot] = oldKeys[i];
+            childNodes[slot] = oldNodes[i];
+        }
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) hash = 31 * hash + bytes[i];
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,243 @@
+package file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows a growing UTF-8 file, such as a log, delivering each complete line once as it is appended. The file is kept
+ * open and read in batches from the byte offset after the last delivered line; an unterminated last line is held back
+ * until its newline arrives. {@link #offset()} can be checkpointed and passed to a new tailer to resume after a
+ * restart without reading the file again.
+ * <p>
+ * If the file shrinks below the offset it is treated as truncated and followed from the start. If the path is
+ * replaced by a different file, as when a log is rotated by renaming, the rest of the old file is delivered, including
+ * an unterminated last line, before following the new file from the start.
+ * <p>
+ * {@link #start(LineListener)} follows the file on a daemon thread that wakes on {@link WatchService} events for the
+ * file's directory, and at least every poll interval, which also covers file systems that cannot be watched. A failed
+ * read stops the thread, and {@link #failure()} tells why.
+ */
+public class Tailer implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public interface LineListener {
+        /**
+         * Receives a line without its terminator, and the offset to resume from once it has been processed.
+         */
+        void onLine(String line, long nextOffset);
+    }
+
+    private final Path file;
+    private final Duration pollInterval;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private FileChannel channel;
+    private Object fileKey;
+    private volatile long offset;
+    private WatchService watchService;
+    private Thread thread;
+    private volatile Exception failure;
+    private volatile boolean closed;
+
+    public Tailer(Path file, Duration pollInterval) {
+        this(file, 0, pollInterval);
+    }
+
+    /**
+     * Follows {@code file} from {@code offset}, normally a checkpointed {@link #offset()}. If the file is now shorter,
+     * it is followed from the start.
+     */
+    public Tailer(Path file, long offset, Duration pollInterval) {
+        if (offset < 0) throw new IllegalArgumentException("Negative offset: " + offset);
+        this.file = file;
+        this.offset = offset;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * The offset just after the last delivered line.
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Delivers the lines appended since the last call, returning how many there were. A missing file has no lines.
+     */
+    public synchronized int poll(LineListener listener) throws IOException {
+        if (closed) throw new IOException("Tailer closed");
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return channel == null ? 0 : readAvailable(listener);
+        }
+        int lines = 0;
+        if (channel != null && attributes.fileKey() != null && !attributes.fileKey().equals(fileKey)) {
+            lines += readAvailable(listener);
+            lines += deliverUnterminated(listener);
+            closeChannel();
+            offset = 0;
+        }
+        if (channel == null) {
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                return lines;
+            }
+            fileKey = attributes.fileKey();
+        }
+        if (channel.size() < offset + buffer.position()) {
+            buffer.clear();
+            offset = 0;
+        }
+        return lines + readAvailable(listener);
+    }
+
+    /**
+     * Reads from the end of the buffered bytes to the end of the file, delivering every complete line.
+     */
+    private int readAvailable(LineListener listener) throws IOException {
+        int lines = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+            int read = channel.read(buffer, offset + buffer.position());
+            if (read <= 0) return lines;
+            lines += deliverLines(listener);
+        }
+    }
+
+    private int deliverLines(LineListener listener) {
+        byte[] bytes = buffer.array();
+        int lineStart = 0;
+        int lines = 0;
+        for (int i = 0; i < buffer.position(); i++) {
+            if (bytes[i] != '\n') continue;
+            int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+            offset += i + 1 - lineStart;
+            listener.onLine(new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8), offset);
+            lineStart = i + 1;
+            lines++;
+        }
+        buffer.flip().position(lineStart);
+        buffer.compact();
+        return lines;
+    }
+
+    private int deliverUnterminated(LineListener listener) {
+        if (buffer.position() == 0) return 0;
+        offset += buffer.position();
+        listener.onLine(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8), offset);
+        buffer.clear();
+        return 1;
+    }
+
+    /**
+     * Follows the file on a daemon thread until {@link #close()}. An {@link IOException} while reading, or an exception
+     * thrown by the listener, stops the thread and is kept as the {@link #failure()}.
+     */
+    public synchronized void start(LineListener listener) {
+        if (thread != null) throw new IllegalStateException("Tailer already started");
+        Objects.requireNonNull(listener);
+        watchService = watch(file.toAbsolutePath().getParent());
+        thread = new Thread(() -> follow(listener), "tailer-" + file.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static WatchService watch(Path dir) {
+        WatchService watchService = null;
+        try {
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            return watchService;
+        } catch (IOException | UnsupportedOperationException e) {
+            closeQuietly(watchService);
+            return null;
+        }
+    }
+
+    private void follow(LineListener listener) {
+        try {
+            while (!closed) {
+                poll(listener);
+                awaitChange();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // tailer closed
+        } catch (IOException | RuntimeException e) {
+            if (!closed) failure = e;
+        }
+    }
+
+    /**
+     * The exception that stopped the thread started by {@link #start(LineListener)}, or {@code null} if it is still
+     * following the file or was stopped by {@link #close()}.
+     */
+    public Exception failure() {
+        return failure;
+    }
+
+    private void awaitChange() throws InterruptedException {
+        if (watchService == null) {
+            Thread.sleep(pollInterval.toMillis());
+            return;
+        }
+        WatchKey key = watchService.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (key != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) channel.close();
+        channel = null;
+        fileKey = null;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) closeable.close();
+        } catch (IOException e) {
+            // nothing to recover
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        Thread follower;
+        WatchService watcher;
+        synchronized (this) {
+            closed = true;
+            follower = thread;
+            watcher = watchService;
+        }
+        closeQuietly(watcher);
+        if (follower != null && follower != Thread.currentThread()) {
+            follower.interrupt();
+            try {
+                follower.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            closeChannel();
+        }
+    }
+}
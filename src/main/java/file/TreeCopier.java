@@ -0,0 +1,252 @@
+package file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recursively copies directory trees, unlike {@link Files#copy(Path, Path, CopyOption...)} which only creates an
+ * empty target directory. Subdirectories and batches of files are copied in parallel on a fork/join pool, file
+ * contents are transferred with {@link FileChannel#transferTo} and timestamps are preserved. Source and target may
+ * belong to different file systems.
+ */
+public class TreeCopier {
+    private static final int FILES_PER_TASK = 32;
+    private static final OpenOption[] REPLACE_TARGET = {StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, LinkOption.NOFOLLOW_LINKS};
+    private static final OpenOption[] CREATE_TARGET = {StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW};
+
+    public interface ProgressListener {
+        /**
+         * Called after each file is copied, possibly from several threads at once.
+         */
+        void fileCopied(Path source, Path target, long bytes);
+    }
+
+    private final ForkJoinPool pool;
+    private final ProgressListener listener;
+    private final boolean replaceExisting;
+
+    public TreeCopier(CopyOption... options) {
+        this(ForkJoinPool.commonPool(), (source, target, bytes) -> {
+        }, options);
+    }
+
+    /**
+     * @param options only {@link StandardCopyOption#REPLACE_EXISTING} is supported; it overwrites existing files and
+     *                merges into existing directories
+     */
+    public TreeCopier(ForkJoinPool pool, ProgressListener listener, CopyOption... options) {
+        this.pool = pool;
+        this.listener = listener;
+        this.replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public Result copy(Path source, Path target) throws IOException {
+        Counters counters = new Counters();
+        long start = System.nanoTime();
+        try {
+            BasicFileAttributes attributes = readAttributes(source);
+            if (attributes.isDirectory()) pool.invoke(new CopyDirectory(source, target, attributes, counters));
+            else copyEntry(source, target, attributes, counters);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new Result(counters, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    private static Path resolve(Path targetDir, Path source) {
+        return targetDir.resolve(source.getFileName().toString());
+    }
+
+    private void copyEntry(Path source, Path target, BasicFileAttributes attributes, Counters counters)
+            throws IOException {
+        if (attributes.isSymbolicLink()) {
+            if (replaceExisting) Files.deleteIfExists(target);
+            Path link = Files.readSymbolicLink(source);
+            Files.createSymbolicLink(target, target.getFileSystem().getPath(link.toString()));
+            return;
+        }
+        long bytes = copyContents(source, target);
+        copyTimes(target, attributes);
+        counters.files.increment();
+        counters.bytes.add(bytes);
+        listener.fileCopied(source, target, bytes);
+    }
+
+    private long copyContents(Path source, Path target) throws IOException {
+        // replace a link at the target rather than writing through it to its referent
+        if (replaceExisting && Files.isSymbolicLink(target)) Files.delete(target);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, replaceExisting ? REPLACE_TARGET : CREATE_TARGET)) {
+            return transfer(in, out);
+        }
+    }
+
+    /**
+     * Copies {@code in} to {@code out} up to the size {@code in} had when the copy started, stopping early if the
+     * source shrinks meanwhile, and returns the number of bytes copied.
+     */
+    static long transfer(FileChannel in, FileChannel out) throws IOException {
+        long size = in.size();
+        long position = 0;
+        while (position < size) {
+            long transferred = in.transferTo(position, size - position, out);
+            if (transferred == 0 && position >= in.size()) break;
+            position += transferred;
+        }
+        return position;
+    }
+
+    private static void copyTimes(Path target, BasicFileAttributes attributes) throws IOException {
+        Files.getFileAttributeView(target, BasicFileAttributeView.class, LinkOption.NOFOLLOW_LINKS)
+                .setTimes(attributes.lastModifiedTime(), attributes.lastAccessTime(), attributes.creationTime());
+    }
+
+    private class CopyDirectory extends RecursiveAction {
+        private final Path source;
+        private final Path target;
+        private final BasicFileAttributes attributes;
+        private final Counters counters;
+
+        CopyDirectory(Path source, Path target, BasicFileAttributes attributes, Counters counters) {
+            this.source = source;
+            this.target = target;
+            this.attributes = attributes;
+            this.counters = counters;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                createTargetDirectory();
+                List<RecursiveAction> subtasks = new ArrayList<>();
+                List<Path> files = new ArrayList<>();
+                List<BasicFileAttributes> fileAttributes = new ArrayList<>();
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(source)) {
+                    for (Path child : children) {
+                        BasicFileAttributes childAttributes = readAttributes(child);
+                        if (childAttributes.isDirectory()) {
+                            subtasks.add(new CopyDirectory(child, resolve(target, child), childAttributes, counters));
+                            continue;
+                        }
+                        files.add(child);
+                        fileAttributes.add(childAttributes);
+                        if (files.size() == FILES_PER_TASK) {
+                            subtasks.add(new CopyFiles(files, fileAttributes, target, counters));
+                            files = new ArrayList<>();
+                            fileAttributes = new ArrayList<>();
+                        }
+                    }
+                }
+                if (!files.isEmpty()) subtasks.add(new CopyFiles(files, fileAttributes, target, counters));
+                invokeAll(subtasks);
+                copyTimes(target, attributes);
+                counters.directories.increment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void createTargetDirectory() throws IOException {
+            try {
+                Files.createDirectory(target);
+            } catch (FileAlreadyExistsException e) {
+                if (!replaceExisting || !Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) throw e;
+            }
+        }
+    }
+
+    private class CopyFiles extends RecursiveAction {
+        private final List<Path> sources;
+        private final List<BasicFileAttributes> attributes;
+        private final Path targetDir;
+        private final Counters counters;
+
+        CopyFiles(List<Path> sources, List<BasicFileAttributes> attributes, Path targetDir, Counters counters) {
+            this.sources = sources;
+            this.attributes = attributes;
+            this.targetDir = targetDir;
+            this.counters = counters;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                for (int i = 0; i < sources.size(); i++)
+                    copyEntry(sources.get(i), resolve(targetDir, sources.get(i)), attributes.get(i), counters);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class Counters {
+        private final LongAdder files = new LongAdder();
+        private final LongAdder directories = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+    }
+
+    public static class Result {
+        private final long files;
+        private final long directories;
+        private final long bytes;
+        private final Duration elapsed;
+
+        Result(Counters counters, Duration elapsed) {
+            this.files = counters.files.sum();
+            this.directories = counters.directories.sum();
+            this.bytes = counters.bytes.sum();
+            this.elapsed = elapsed;
+        }
+
+        public long files() {
+            return files;
+        }
+
+        public long directories() {
+            return directories;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        public Duration elapsed() {
+            return elapsed;
+        }
+
+        public double bytesPerSecond() {
+            long nanos = Math.max(1, elapsed.toNanos());
+            return bytes * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{files=" + files + ", directories=" + directories + ", bytes=" + bytes + ", elapsed="
+                    + elapsed + "}";
+        }
+    }
+}
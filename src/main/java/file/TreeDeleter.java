@@ -0,0 +1,142 @@
+package file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recursively deletes directory trees, which {@link Files#delete(Path)} refuses to do for non-empty directories.
+ * Sibling subtrees are deleted in parallel on a fork/join pool and each directory is removed once its children are
+ * gone. Like {@link Files#deleteIfExists(Path)}, entries that disappear concurrently are skipped. Symbolic links are
+ * deleted, never followed.
+ */
+public class TreeDeleter {
+    private static final int FILES_PER_TASK = 32;
+
+    private final ForkJoinPool pool;
+
+    public TreeDeleter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public TreeDeleter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Result delete(Path root) throws IOException {
+        Counters counters = new Counters();
+        long start = System.nanoTime();
+        try {
+            if (Files.isDirectory(root, LinkOption.NOFOLLOW_LINKS)) pool.invoke(new DeleteDirectory(root, counters));
+            else if (Files.deleteIfExists(root)) counters.files.increment();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new Result(counters, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static class DeleteDirectory extends RecursiveAction {
+        private final Path dir;
+        private final Counters counters;
+
+        DeleteDirectory(Path dir, Counters counters) {
+            this.dir = dir;
+            this.counters = counters;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                List<RecursiveAction> subtasks = new ArrayList<>();
+                List<Path> files = new ArrayList<>();
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                    for (Path child : children) {
+                        if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                            subtasks.add(new DeleteDirectory(child, counters));
+                            continue;
+                        }
+                        files.add(child);
+                        if (files.size() == FILES_PER_TASK) {
+                            subtasks.add(new DeleteFiles(files, counters));
+                            files = new ArrayList<>();
+                        }
+                    }
+                } catch (NoSuchFileException e) {
+                    return;
+                }
+                if (!files.isEmpty()) subtasks.add(new DeleteFiles(files, counters));
+                invokeAll(subtasks);
+                if (Files.deleteIfExists(dir)) counters.directories.increment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class DeleteFiles extends RecursiveAction {
+        private final List<Path> files;
+        private final Counters counters;
+
+        DeleteFiles(List<Path> files, Counters counters) {
+            this.files = files;
+            this.counters = counters;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                for (Path file : files)
+                    if (Files.deleteIfExists(file)) counters.files.increment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class Counters {
+        private final LongAdder files = new LongAdder();
+        private final LongAdder directories = new LongAdder();
+    }
+
+    public static class Result {
+        private final long files;
+        private final long directories;
+        private final Duration elapsed;
+
+        Result(Counters counters, Duration elapsed) {
+            this.files = counters.files.sum();
+            this.directories = counters.directories.sum();
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * Files and symbolic links deleted by this call, excluding those that disappeared concurrently.
+         */
+        public long files() {
+            return files;
+        }
+
+        public long directories() {
+            return directories;
+        }
+
+        public Duration elapsed() {
+            return elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{files=" + files + ", directories=" + directories + ", elapsed=" + elapsed + "}";
+        }
+    }
+}
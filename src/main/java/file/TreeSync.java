@@ -0,0 +1,616 @@
+package file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Makes a target directory tree a mirror of a source tree, rewriting only files whose content changed. A file whose
+ * size and modification time match the target is skipped without being read. Otherwise the source is read once, in
+ * fixed-size chunks hashed in parallel, and each chunk is compared with the target's chunk hash. On the first differing
+ * chunk the target is copied into a temporary sibling; that chunk and every later differing one are written into the
+ * copy straight from the buffer they were hashed from, and the copy then atomically replaces the target.
+ * <p>
+ * A changed file thus costs a full read of the source, a full copy of the target ({@link Result#bytesCopied()}) and
+ * the changed chunks ({@link Result#bytesWritten()}), which is more I/O than copying it outright; a file whose
+ * content turns out unchanged, such as one that was only touched, costs the read alone. Sync time therefore scales
+ * with the size of the files that changed, not with the size of the changes within them. Source and target
+ * permissions are kept equal where both file systems support POSIX permissions. Entries of the target that are not
+ * in the source are deleted.
+ * <p>
+ * The chunk hashes of every synced file are kept in a manifest in the target root, so the next sync compares against
+ * them instead of reading the target again. The manifest is trusted only while the target file's size and
+ * modification time are those it recorded; otherwise the target is read and hashed in full as well.
+ */
+public class TreeSync {
+    public static final String MANIFEST_NAME = ".tree-sync-manifest";
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private static final int MANIFEST_MAGIC = 0x54534d31;
+    private static final int FILES_PER_TASK = 32;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public TreeSync() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public TreeSync(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive");
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public Result sync(Path source, Path target) throws IOException {
+        Counters counters = new Counters();
+        long start = System.nanoTime();
+        BasicFileAttributes attributes = readAttributes(source);
+        if (!attributes.isDirectory()) throw new IOException("Not a directory: " + source);
+        Map<String, Entry> previous = loadManifest(target.resolve(MANIFEST_NAME));
+        Map<String, Entry> current = new ConcurrentHashMap<>();
+        try {
+            pool.invoke(new SyncDirectory(new Context(source, target, previous, current, counters), "",
+                    attributes));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        saveManifest(target.resolve(MANIFEST_NAME), current);
+        return new Result(counters, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    private static BasicFileAttributes readAttributesIfExists(Path path) throws IOException {
+        try {
+            return readAttributes(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static long modifiedMillis(BasicFileAttributes attributes) {
+        return attributes.lastModifiedTime().toMillis();
+    }
+
+    private static String childName(String relativeDir, Path child) {
+        String name = child.getFileName().toString();
+        return relativeDir.isEmpty() ? name : relativeDir + "/" + name;
+    }
+
+    private void syncFile(Context context, String name, BasicFileAttributes sourceAttributes) throws IOException {
+        Path source = context.source.resolve(name);
+        Path target = context.target.resolve(name);
+        context.counters.files.increment();
+        BasicFileAttributes targetAttributes = readAttributesIfExists(target);
+        Entry recorded = context.previous.get(name);
+        long size = sourceAttributes.size();
+        long modified = modifiedMillis(sourceAttributes);
+
+        if (targetAttributes != null && targetAttributes.isRegularFile() && targetAttributes.size() == size
+                && modifiedMillis(targetAttributes) == modified) {
+            boolean recordedCurrent = recorded != null && recorded.size == size && recorded.modified == modified;
+            context.current.put(name, recordedCurrent ? recorded : new Entry(size, modified, null));
+            copyPermissions(source, target);
+            context.counters.unchanged.increment();
+            return;
+        }
+
+        boolean replace = targetAttributes != null && targetAttributes.isRegularFile();
+        if (targetAttributes != null && !replace) new TreeDeleter(pool).delete(target);
+        byte[][] targetHashes;
+        if (!replace) {
+            targetHashes = new byte[0][];
+        } else if (recorded != null && recorded.hashes != null && recorded.size == targetAttributes.size()
+                && recorded.modified == modifiedMillis(targetAttributes)) {
+            targetHashes = recorded.hashes;
+        } else {
+            targetHashes = hashChunks(target, targetAttributes.size(), null, null, context.counters);
+        }
+        try (Rewrite rewrite = new Rewrite(target, replace, context.counters)) {
+            byte[][] sourceHashes = hashChunks(source, size, targetHashes, rewrite, context.counters);
+            if (rewrite.started() || !replace || size != targetAttributes.size()) {
+                rewrite.finish(source, size, sourceAttributes);
+                if (replace) context.counters.chunksWritten.add(rewrite.chunks.sum());
+            } else {
+                copyPermissions(source, target);
+                copyTimes(target, sourceAttributes);
+                context.counters.unchanged.increment();
+            }
+            context.current.put(name, new Entry(size, modified, sourceHashes));
+        }
+    }
+
+    /**
+     * Reads {@code file} once and hashes its chunks in parallel. If {@code rewrite} is given, chunks whose hash differs
+     * from {@code compareTo} are written to it from the buffer they were hashed from.
+     */
+    private byte[][] hashChunks(Path file, long size, byte[][] compareTo, Rewrite rewrite, Counters counters)
+            throws IOException {
+        int chunks = (int) ((size + chunkSize - 1) / chunkSize);
+        byte[][] hashes = new byte[chunks][];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<HashChunk> tasks = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) tasks.add(new HashChunk(channel, size, i, hashes, compareTo, rewrite));
+            ForkJoinTask.invokeAll(tasks);
+        }
+        counters.bytesHashed.add(size);
+        return hashes;
+    }
+
+    private ByteBuffer readChunk(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(chunkSize, size - position));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("File shrank while hashing");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static byte[] hash(ByteBuffer chunk) {
+        MessageDigest digest = sha256();
+        digest.update(chunk.duplicate());
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    }
+
+    /**
+     * Gives {@code target} the permissions of {@code source} if they differ. Temporary files in particular are
+     * created accessible to the owner only.
+     */
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        PosixFileAttributeView from = Files.getFileAttributeView(source, PosixFileAttributeView.class,
+                LinkOption.NOFOLLOW_LINKS);
+        PosixFileAttributeView to = Files.getFileAttributeView(target, PosixFileAttributeView.class,
+                LinkOption.NOFOLLOW_LINKS);
+        if (from == null || to == null) return;
+        Set<PosixFilePermission> permissions = from.readAttributes().permissions();
+        if (!permissions.equals(to.readAttributes().permissions())) to.setPermissions(permissions);
+    }
+
+    private static void copyTimes(Path target, BasicFileAttributes attributes) throws IOException {
+        Files.getFileAttributeView(target, BasicFileAttributeView.class, LinkOption.NOFOLLOW_LINKS)
+                .setTimes(attributes.lastModifiedTime(), null, null);
+    }
+
+    private void syncLink(Context context, String name) throws IOException {
+        Path source = context.source.resolve(name);
+        Path target = context.target.resolve(name);
+        String link = Files.readSymbolicLink(source).toString();
+        BasicFileAttributes targetAttributes = readAttributesIfExists(target);
+        if (targetAttributes != null && targetAttributes.isSymbolicLink()
+                && Files.readSymbolicLink(target).toString().equals(link)) {
+            return;
+        }
+        if (targetAttributes != null) new TreeDeleter(pool).delete(target);
+        Files.createSymbolicLink(target, target.getFileSystem().getPath(link));
+    }
+
+    /**
+     * Reads the manifest of the previous sync. A manifest written with a different chunk size is ignored.
+     */
+    private Map<String, Entry> loadManifest(Path manifest) throws IOException {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (!Files.isRegularFile(manifest)) return entries;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest)))) {
+            if (in.readInt() != MANIFEST_MAGIC || in.readInt() != chunkSize) return entries;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long size = in.readLong();
+                long modified = in.readLong();
+                int chunks = in.readInt();
+                byte[][] hashes = chunks < 0 ? null : new byte[chunks][];
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    hashes[chunk] = new byte[in.readUnsignedByte()];
+                    in.readFully(hashes[chunk]);
+                }
+                entries.put(name, new Entry(size, modified, hashes));
+            }
+        }
+        return entries;
+    }
+
+    private void saveManifest(Path manifest, Map<String, Entry> entries) throws IOException {
+        Path temp = Files.createTempFile(manifest.getParent(), ".sync-", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MANIFEST_MAGIC);
+                out.writeInt(chunkSize);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().size);
+                    out.writeLong(entry.getValue().modified);
+                    byte[][] hashes = entry.getValue().hashes;
+                    out.writeInt(hashes == null ? -1 : hashes.length);
+                    if (hashes == null) continue;
+                    for (byte[] hash : hashes) {
+                        out.writeByte(hash.length);
+                        out.write(hash);
+                    }
+                }
+            }
+            Files.move(temp, manifest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static class Context {
+        final Path source;
+        final Path target;
+        final Map<String, Entry> previous;
+        final Map<String, Entry> current;
+        final Counters counters;
+
+        Context(Path source, Path target, Map<String, Entry> previous, Map<String, Entry> current,
+                Counters counters) {
+            this.source = source;
+            this.target = target;
+            this.previous = previous;
+            this.current = current;
+            this.counters = counters;
+        }
+    }
+
+    private class SyncDirectory extends RecursiveAction {
+        private final Context context;
+        private final String name;
+        private final BasicFileAttributes attributes;
+
+        SyncDirectory(Context context, String name, BasicFileAttributes attributes) {
+            this.context = context;
+            this.name = name;
+            this.attributes = attributes;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                Path source = name.isEmpty() ? context.source : context.source.resolve(name);
+                Path target = name.isEmpty() ? context.target : context.target.resolve(name);
+                createTargetDirectory(target);
+                List<RecursiveAction> subtasks = new ArrayList<>();
+                List<String> files = new ArrayList<>();
+                List<BasicFileAttributes> fileAttributes = new ArrayList<>();
+                Set<String> names = new HashSet<>();
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(source)) {
+                    for (Path child : children) {
+                        String childName = childName(name, child);
+                        if (childName.equals(MANIFEST_NAME)) continue;
+                        names.add(child.getFileName().toString());
+                        BasicFileAttributes childAttributes = readAttributes(child);
+                        if (childAttributes.isDirectory()) {
+                            subtasks.add(new SyncDirectory(context, childName, childAttributes));
+                            continue;
+                        }
+                        files.add(childName);
+                        fileAttributes.add(childAttributes);
+                        if (files.size() == FILES_PER_TASK) {
+                            subtasks.add(new SyncFiles(context, files, fileAttributes));
+                            files = new ArrayList<>();
+                            fileAttributes = new ArrayList<>();
+                        }
+                    }
+                }
+                if (!files.isEmpty()) subtasks.add(new SyncFiles(context, files, fileAttributes));
+                deleteExtraneous(target, names);
+                invokeAll(subtasks);
+                copyTimes(target, attributes);
+                context.counters.directories.increment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void createTargetDirectory(Path target) throws IOException {
+            BasicFileAttributes existing = readAttributesIfExists(target);
+            if (existing != null && existing.isDirectory()) return;
+            if (existing != null) Files.delete(target);
+            Files.createDirectories(target);
+        }
+
+        private void deleteExtraneous(Path target, Set<String> names) throws IOException {
+            List<Path> extraneous = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(target)) {
+                for (Path child : children) {
+                    String childName = child.getFileName().toString();
+                    if (!names.contains(childName) && !childName(name, child).equals(MANIFEST_NAME)) {
+                        extraneous.add(child);
+                    }
+                }
+            }
+            for (Path child : extraneous) {
+                new TreeDeleter(pool).delete(child);
+                context.counters.deleted.increment();
+            }
+        }
+    }
+
+    private class HashChunk extends RecursiveAction {
+        private final FileChannel channel;
+        private final long size;
+        private final int chunk;
+        private final byte[][] hashes;
+        private final byte[][] compareTo;
+        private final Rewrite rewrite;
+
+        HashChunk(FileChannel channel, long size, int chunk, byte[][] hashes, byte[][] compareTo, Rewrite rewrite) {
+            this.channel = channel;
+            this.size = size;
+            this.chunk = chunk;
+            this.hashes = hashes;
+            this.compareTo = compareTo;
+            this.rewrite = rewrite;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                long position = (long) chunk * chunkSize;
+                ByteBuffer buffer = readChunk(channel, position, size);
+                hashes[chunk] = hash(buffer);
+                if (rewrite != null && (chunk >= compareTo.length || !Arrays.equals(hashes[chunk], compareTo[chunk]))) {
+                    rewrite.write(buffer, position);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * The replacement of a target file, written into a temporary sibling that is created on the first write and starts
+     * as a copy of the existing target, if any. Closing it without {@link #finish} deletes the temporary file.
+     */
+    private static class Rewrite implements Closeable {
+        private final Path target;
+        private final boolean copyTarget;
+        private final Counters counters;
+        private final LongAdder chunks = new LongAdder();
+        private Path temp;
+        private FileChannel out;
+        private boolean moved;
+
+        Rewrite(Path target, boolean copyTarget, Counters counters) {
+            this.target = target;
+            this.copyTarget = copyTarget;
+            this.counters = counters;
+        }
+
+        synchronized boolean started() {
+            return temp != null;
+        }
+
+        private synchronized FileChannel open() throws IOException {
+            if (temp == null) {
+                temp = Files.createTempFile(target.getParent(), ".sync-", ".tmp");
+                out = FileChannel.open(temp, StandardOpenOption.WRITE);
+                if (copyTarget) {
+                    try (FileChannel existing = FileChannel.open(target, StandardOpenOption.READ)) {
+                        counters.bytesCopied.add(TreeCopier.transfer(existing, out));
+                    }
+                }
+            }
+            return out;
+        }
+
+        /**
+         * Writes {@code chunk} at {@code position}; may be called from several threads at once.
+         */
+        void write(ByteBuffer chunk, long position) throws IOException {
+            FileChannel channel = open();
+            ByteBuffer remaining = chunk.duplicate();
+            while (remaining.hasRemaining()) channel.write(remaining, position + remaining.position());
+            counters.bytesWritten.add(chunk.remaining());
+            chunks.increment();
+        }
+
+        /**
+         * Truncates the replacement to {@code size}, gives it the permissions and modification time of {@code source}
+         * and atomically moves it over the target.
+         */
+        void finish(Path source, long size, BasicFileAttributes sourceAttributes) throws IOException {
+            open().truncate(size);
+            out.close();
+            copyPermissions(source, temp);
+            copyTimes(temp, sourceAttributes);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+            counters.filesWritten.increment();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) out.close();
+            if (temp != null && !moved) Files.deleteIfExists(temp);
+        }
+    }
+
+    private class SyncFiles extends RecursiveAction {
+        private final Context context;
+        private final List<String> names;
+        private final List<BasicFileAttributes> attributes;
+
+        SyncFiles(Context context, List<String> names, List<BasicFileAttributes> attributes) {
+            this.context = context;
+            this.names = names;
+            this.attributes = attributes;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                for (int i = 0; i < names.size(); i++) {
+                    if (attributes.get(i).isSymbolicLink()) syncLink(context, names.get(i));
+                    else if (attributes.get(i).isRegularFile()) syncFile(context, names.get(i), attributes.get(i));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class Entry {
+        final long size;
+        final long modified;
+        final byte[][] hashes;
+
+        Entry(long size, long modified, byte[][] hashes) {
+            this.size = size;
+            this.modified = modified;
+            this.hashes = hashes;
+        }
+    }
+
+    private static class Counters {
+        private final LongAdder files = new LongAdder();
+        private final LongAdder directories = new LongAdder();
+        private final LongAdder unchanged = new LongAdder();
+        private final LongAdder filesWritten = new LongAdder();
+        private final LongAdder chunksWritten = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final LongAdder bytesCopied = new LongAdder();
+        private final LongAdder bytesHashed = new LongAdder();
+        private final LongAdder deleted = new LongAdder();
+    }
+
+    public static class Result {
+        private final long files;
+        private final long directories;
+        private final long unchanged;
+        private final long filesWritten;
+        private final long chunksWritten;
+        private final long bytesWritten;
+        private final long bytesCopied;
+        private final long bytesHashed;
+        private final long deleted;
+        private final Duration elapsed;
+
+        Result(Counters counters, Duration elapsed) {
+            this.files = counters.files.sum();
+            this.directories = counters.directories.sum();
+            this.unchanged = counters.unchanged.sum();
+            this.filesWritten = counters.filesWritten.sum();
+            this.chunksWritten = counters.chunksWritten.sum();
+            this.bytesWritten = counters.bytesWritten.sum();
+            this.bytesCopied = counters.bytesCopied.sum();
+            this.bytesHashed = counters.bytesHashed.sum();
+            this.deleted = counters.deleted.sum();
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * Regular files in the source.
+         */
+        public long files() {
+            return files;
+        }
+
+        public long directories() {
+            return directories;
+        }
+
+        /**
+         * Files whose content did not need to be written.
+         */
+        public long unchanged() {
+            return unchanged;
+        }
+
+        public long filesWritten() {
+            return filesWritten;
+        }
+
+        /**
+         * Chunks written into existing files; new files are written whole and not counted.
+         */
+        public long chunksWritten() {
+            return chunksWritten;
+        }
+
+        /**
+         * Bytes written from the source: whole new files and the changed chunks of existing ones. Each written byte
+         * was read from the source once, when it was hashed.
+         */
+        public long bytesWritten() {
+            return bytesWritten;
+        }
+
+        /**
+         * Bytes of existing target files copied into their replacements; every changed file is copied in full.
+         */
+        public long bytesCopied() {
+            return bytesCopied;
+        }
+
+        /**
+         * Bytes read to compute chunk hashes: every source file not skipped by size and modification time, in full,
+         * plus every target file whose manifest entry was missing or stale.
+         */
+        public long bytesHashed() {
+            return bytesHashed;
+        }
+
+        /**
+         * Files, links and directory trees deleted from the target because they are not in the source.
+         */
+        public long deleted() {
+            return deleted;
+        }
+
+        public Duration elapsed() {
+            return elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{files=" + files + ", directories=" + directories + ", unchanged=" + unchanged
+                    + ", filesWritten=" + filesWritten + ", chunksWritten=" + chunksWritten + ", bytesWritten="
+                    + bytesWritten + ", bytesCopied=" + bytesCopied + ", bytesHashed=" + bytesHashed + ", deleted="
+                    + deleted + ", elapsed=" + elapsed + "}";
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package classpath;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ResourceBytesTest {
+    @Test
+    public void readFromDirectory() throws Exception {
+        String str = ResourceBytes.readString(getClass().getResource("/classpath-file.txt"), StandardCharsets.UTF_8);
+
+        assertEquals("classpathLine1\nclasspathLine2", str);
+    }
+
+    @Test
+    public void readFromJar() throws Exception {
+        byte[] bytes = ResourceBytes.read(getClass().getResource("/jar-file.txt"));
+
+        assertEquals("jarLine1\njarLine2", new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readPreservesOriginalSeparator() throws Exception {
+        String str = ResourceBytes.readString(getClass().getResource("/windows-file.txt"), StandardCharsets.UTF_8);
+
+        assertEquals("windowsLine1\r\nwindowsLine2", str);
+    }
+
+    @Test
+    public void readWithExactHint_returnsArrayReadInto() throws Exception {
+        byte[] content = randomBytes(200_000);
+
+        assertArrayEquals(content, ResourceBytes.read(new ByteArrayInputStream(content), content.length));
+    }
+
+    @Test
+    public void readWithUnknownOrWrongHint() throws Exception {
+        for (int size : new int[]{0, 1, 65_536, 65_537, 1_000_000}) {
+            byte[] content = randomBytes(size);
+
+            assertArrayEquals(content, ResourceBytes.read(new ByteArrayInputStream(content), -1));
+            assertArrayEquals(content, ResourceBytes.read(new ByteArrayInputStream(content), size / 2));
+            assertArrayEquals(content, ResourceBytes.read(new ByteArrayInputStream(content), size * 2L + 1));
+        }
+    }
+
+    @Test
+    public void readFromStreamReturningShortReads() throws Exception {
+        byte[] content = randomBytes(300_000);
+        InputStream trickle = new ByteArrayInputStream(content) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+
+        assertArrayEquals(content, ResourceBytes.read(trickle, content.length));
+    }
+
+    @Test
+    public void resultsDoNotShareScratchBuffer() throws Exception {
+        byte[] first = ResourceBytes.read(new ByteArrayInputStream(new byte[]{1, 2, 3}), 3);
+        ResourceBytes.read(new ByteArrayInputStream(new byte[]{4, 5, 6}), 3);
+
+        assertArrayEquals(new byte[]{1, 2, 3}, first);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
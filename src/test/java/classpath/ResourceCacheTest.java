@@ -0,0 +1,131 @@
+package classpath;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class ResourceCacheTest {
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+
+    @Test
+    public void loadFromRootOfClasspath() throws Exception {
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), UNBOUNDED, false);
+
+        assertEquals("i am at classpath root", decode(cache.get(getClass(), "/classpath-root.txt")));
+        assertEquals("i am at classpath root", decode(cache.get("classpath-root.txt")));
+    }
+
+    @Test
+    public void loadFromInnerClasspath() throws Exception {
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), UNBOUNDED, false);
+
+        assertEquals("i am at classpath/inner", decode(cache.get(getClass(), "inner/classpath-inner.txt")));
+        assertEquals("i am at classpath/inner", decode(cache.get("classpath/inner/classpath-inner.txt")));
+    }
+
+    @Test
+    public void loadUsingClassloaderSemantics_cannotContainRootSlash() throws Exception {
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), UNBOUNDED, false);
+
+        assertNull(cache.get("/classpath-root.txt"));
+    }
+
+    @Test
+    public void loadFromJar() throws Exception {
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), UNBOUNDED, false);
+
+        assertEquals("jarLine1\njarLine2", decode(cache.get("jar-file.txt")));
+    }
+
+    @Test
+    public void classAndClassLoaderLookups_shareEntry() throws Exception {
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), UNBOUNDED, false);
+
+        cache.get(getClass(), "/classpath-root.txt");
+        cache.get("classpath-root.txt");
+
+        assertEquals(1, cache.stats().misses());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().size());
+    }
+
+    @Test
+    public void nonExistentResource_isMissAndNotCached() throws Exception {
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), UNBOUNDED, false);
+
+        assertNull(cache.get("non-existent.txt"));
+
+        assertEquals(1, cache.stats().misses());
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    public void exceedingMaxWeight_evictsLeastRecentlyUsed() throws Exception {
+        long rootSize = "i am at classpath root".length();
+        long fileSize = "classpathLine1\nclasspathLine2".length();
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), rootSize + fileSize, false);
+        cache.get("classpath-root.txt");
+        cache.get("classpath/inner/classpath-inner.txt");
+        cache.get("classpath-root.txt");
+
+        cache.get("classpath-file.txt");
+
+        assertEquals(1, cache.stats().evictions());
+        cache.get("classpath-root.txt");
+        assertEquals(2, cache.stats().hits());
+        cache.get("classpath/inner/classpath-inner.txt");
+        assertEquals(4, cache.stats().misses());
+    }
+
+    @Test
+    public void evictedEntry_isServedFromSoftTier() throws Exception {
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), 30, true);
+        cache.get("classpath-root.txt");
+        cache.get("classpath/inner/classpath-inner.txt");
+
+        ByteBuffer evicted = cache.get("classpath-root.txt");
+
+        assertEquals("i am at classpath root", decode(evicted));
+        assertEquals(1, cache.stats().softHits());
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    public void entryHeavierThanLimit_isCountedAsBypass() throws Exception {
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), 10, false);
+
+        cache.get("classpath-root.txt");
+        cache.get("classpath-root.txt");
+
+        assertEquals(2, cache.stats().bypasses());
+        assertEquals(2, cache.stats().misses());
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    public void entryHeavierThanLimit_isKeptInSoftTier() throws Exception {
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), 10, true);
+
+        cache.get("classpath-root.txt");
+        ByteBuffer again = cache.get("classpath-root.txt");
+
+        assertEquals("i am at classpath root", decode(again));
+        assertEquals(1, cache.stats().misses());
+        assertEquals(1, cache.stats().softHits());
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    public void cachedBuffer_isReadOnly() throws Exception {
+        ResourceCache cache = new ResourceCache(getClass().getClassLoader(), UNBOUNDED, false);
+
+        assertTrue(cache.get("classpath-root.txt").isReadOnly());
+    }
+
+    private String decode(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+}
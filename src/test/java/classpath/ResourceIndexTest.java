@@ -0,0 +1,100 @@
+package classpath;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ResourceIndexTest {
+    private static ResourceIndex index;
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void buildIndex() throws Exception {
+        index = ResourceIndex.build(ResourceIndexTest.class.getClassLoader());
+    }
+
+    @Test
+    public void loadFromRootOfClasspath() throws Exception {
+        URL resource = index.getResource("classpath-root.txt");
+
+        assertTrue(index.contains("classpath-root.txt"));
+        assertEquals(getClass().getClassLoader().getResource("classpath-root.txt"), resource);
+        assertEquals("i am at classpath root", readString(resource));
+    }
+
+    @Test
+    public void loadFromInnerClasspath() throws Exception {
+        URL resource = index.getResource("classpath/inner/classpath-inner.txt");
+
+        assertEquals(getClass().getClassLoader().getResource("classpath/inner/classpath-inner.txt"), resource);
+        assertEquals("i am at classpath/inner", readString(resource));
+    }
+
+    @Test
+    public void loadFromJar() throws Exception {
+        URL resource = index.getResource("jar-file.txt");
+
+        assertTrue(resource.toString().startsWith("jar:file:"));
+        assertEquals(getClass().getClassLoader().getResource("jar-file.txt"), resource);
+        assertEquals("jarLine1\njarLine2", readString(resource));
+    }
+
+    @Test
+    public void loadUsingIndex_cannotContainRootSlash() {
+        assertNull(index.getResource("/classpath-root.txt"));
+    }
+
+    @Test
+    public void loadMissingFromIndex_fallsBackToClassLoader() {
+        assertFalse(index.contains("java/lang/Object.class"));
+        assertNotNull(index.getResource("java/lang/Object.class"));
+        assertNull(index.getResource("non-existent.txt"));
+    }
+
+    @Test
+    public void prefixQuery() {
+        assertEquals(Collections.singletonList("classpath/inner/classpath-inner.txt"),
+                index.namesWithPrefix("classpath/inner/"));
+    }
+
+    @Test
+    public void globQuery() {
+        assertEquals(Arrays.asList("classpath-file.txt", "jar-file.txt", "unix-file.txt", "windows-file.txt"),
+                index.namesMatching("*-file.txt"));
+        assertEquals(Collections.singletonList("classpath/inner/classpath-inner.txt"),
+                index.namesMatching("classpath/**.txt"));
+        assertTrue(index.namesMatching("classpath/*.txt").isEmpty());
+    }
+
+    @Test
+    public void globQuery_bracketsAndEscapesAreLiteral() throws Exception {
+        Path root = tempFolder.getRoot().toPath();
+        for (String name : List.of("lib[1]/a.txt", "lib{x}/b.txt", "star*.txt", "starX.txt")) {
+            Path file = root.resolve(name);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, name);
+        }
+        ResourceIndex local = ResourceIndex.build(getClass().getClassLoader(), List.of(root));
+
+        assertEquals(List.of("lib[1]/a.txt"), local.namesMatching("lib[1]/*.txt"));
+        assertEquals(List.of("lib{x}/b.txt"), local.namesMatching("lib{x}/**"));
+        assertEquals(List.of("star*.txt"), local.namesMatching("star\\*.txt"));
+        assertEquals(List.of("star*.txt", "starX.txt"), local.namesMatching("star*.txt"));
+    }
+
+    private String readString(URL resource) throws Exception {
+        return new String(resource.openStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
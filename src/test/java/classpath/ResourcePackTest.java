@@ -0,0 +1,109 @@
+package classpath;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ResourcePackTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+    private Path resourceDir;
+    private Path resourceJar;
+    private Path blob;
+
+    @Before
+    public void setUp() throws Exception {
+        resourceDir = Paths.get(getClass().getResource("/classpath-root.txt").toURI()).getParent();
+        String jarUri = getClass().getResource("/jar-file.txt").toString();
+        resourceJar = Paths.get(URI.create(jarUri.substring("jar:".length(), jarUri.indexOf("!/"))));
+        blob = tempFolder.getRoot().toPath().resolve("resources.pack");
+    }
+
+    @Test
+    public void packDirectoryAndJar_loadsLikeClassLoader() throws Exception {
+        ResourcePack.write(blob, Arrays.asList(resourceDir, resourceJar));
+        ResourcePack pack = ResourcePack.open(blob);
+
+        assertEquals("i am at classpath root", decode(pack.get("classpath-root.txt")));
+        assertEquals("i am at classpath/inner", decode(pack.get("classpath/inner/classpath-inner.txt")));
+        assertEquals("jarLine1\njarLine2", decode(pack.get("jar-file.txt")));
+        assertEquals("windowsLine1\r\nwindowsLine2", decode(pack.get("windows-file.txt")));
+    }
+
+    @Test
+    public void missingOrAbsoluteName_isNull() throws Exception {
+        ResourcePack.write(blob, Collections.singletonList(resourceDir));
+        ResourcePack pack = ResourcePack.open(blob);
+
+        assertNull(pack.get("non-existent.txt"));
+        assertNull(pack.get("/classpath-root.txt"));
+        assertNull(pack.get("classpath"));
+        assertFalse(pack.contains(""));
+    }
+
+    @Test
+    public void names_areSortedByUtf8Bytes() throws Exception {
+        try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+            Path dir = Files.createDirectory(fs.getPath("/sorted"));
+            for (String name : new String[]{"b", "a", "ab", "\u00e9", "Z", "\ud83d\ude00", "\uffe0"}) {
+                Files.write(dir.resolve(name), name.getBytes(StandardCharsets.UTF_8));
+            }
+
+            ResourcePack.write(blob, Collections.singletonList(dir));
+        }
+        ResourcePack pack = ResourcePack.open(blob);
+
+        List<String> names = pack.names();
+        assertEquals(Arrays.asList("Z", "a", "ab", "b", "\u00e9", "\uffe0", "\ud83d\ude00"), names);
+        for (String name : names) assertEquals(name, decode(pack.get(name)));
+    }
+
+    @Test
+    public void firstRootWins() throws Exception {
+        Path first = tempFolder.newFolder("first").toPath();
+        Files.write(first.resolve("jar-file.txt"), "shadowed".getBytes(StandardCharsets.UTF_8));
+
+        int count = ResourcePack.write(blob, Arrays.asList(first, resourceJar));
+
+        assertEquals("shadowed", decode(ResourcePack.open(blob).get("jar-file.txt")));
+        assertEquals(ResourcePack.open(blob).size(), count);
+    }
+
+    @Test
+    public void returnedBuffers_areReadOnlyAndIndependent() throws Exception {
+        ResourcePack.write(blob, Collections.singletonList(resourceDir));
+        ResourcePack pack = ResourcePack.open(blob);
+
+        ByteBuffer first = pack.get("unix-file.txt");
+        first.get();
+
+        assertTrue(first.isReadOnly());
+        assertEquals("unixLine1\nunixLine2", decode(pack.get("unix-file.txt")));
+    }
+
+    @Test(expected = IOException.class)
+    public void openNonPack_throws() throws Exception {
+        ResourcePack.open(Files.write(blob, "not a pack at all".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String decode(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+}
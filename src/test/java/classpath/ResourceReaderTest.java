@@ -0,0 +1,122 @@
+package classpath;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceReaderTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+    private ResourceReader reader;
+
+    @Before
+    public void setUp() {
+        reader = new ResourceReader();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        reader.close();
+    }
+
+    @Test
+    public void readFromDirectory_isMemoryMapped() throws Exception {
+        ByteBuffer buffer = reader.read(getClass().getResource("/classpath-file.txt"));
+
+        assertTrue(buffer.isDirect());
+        assertTrue(buffer.isReadOnly());
+        assertEquals("classpathLine1\nclasspathLine2", StandardCharsets.UTF_8.decode(buffer).toString());
+    }
+
+    @Test
+    public void readFromJar() throws Exception {
+        ByteBuffer buffer = reader.read(getClass().getResource("/jar-file.txt"));
+
+        assertTrue(buffer.isReadOnly());
+        assertEquals("jarLine1\njarLine2", StandardCharsets.UTF_8.decode(buffer).toString());
+    }
+
+    @Test
+    public void readFromJar_reusesFileSystemAcrossReads() throws Exception {
+        URI uri = getClass().getResource("/jar-file.txt").toURI();
+        URI jar = URI.create(uri.toString().substring(0, uri.toString().indexOf("!/")));
+
+        CharSequence first = reader.readChars(uri, StandardCharsets.UTF_8);
+        FileSystem fs = reader.jarFileSystem(jar);
+        CharSequence second = reader.readChars(uri, StandardCharsets.UTF_8);
+
+        assertEquals("jarLine1\njarLine2", first.toString());
+        assertEquals("jarLine1\njarLine2", second.toString());
+        assertSame(fs, reader.jarFileSystem(jar));
+        reader.close();
+        assertFalse(fs.isOpen());
+    }
+
+    @Test
+    public void readFromJar_decodesEntryName() throws Exception {
+        Path jarFile = tempFolder.getRoot().toPath().resolve("resources.jar");
+        try (FileSystem zip = FileSystems.newFileSystem(jarFile, Map.of("create", "true"))) {
+            Path entry = zip.getPath("dir with space", "caf\u00e9.txt");
+            Files.createDirectories(entry.getParent());
+            Files.writeString(entry, "encodedLine");
+        }
+        URL resource;
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jarFile.toUri().toURL()}, null)) {
+            resource = loader.getResource("dir with space/caf\u00e9.txt");
+        }
+
+        assertTrue(resource.toString().contains("%20"));
+        assertEquals("encodedLine", StandardCharsets.UTF_8.decode(reader.read(resource)).toString());
+    }
+
+    @Test
+    public void readFromJar_leavesBorrowedFileSystemOpen() throws Exception {
+        Path jarFile = tempFolder.getRoot().toPath().resolve("resources.jar");
+        try (FileSystem zip = FileSystems.newFileSystem(jarFile, Map.of("create", "true"))) {
+            Files.writeString(zip.getPath("entry.txt"), "borrowedLine");
+        }
+        URI jar = URI.create("jar:" + jarFile.toUri());
+        try (FileSystem borrowed = FileSystems.newFileSystem(jar, Collections.emptyMap())) {
+            assertEquals("borrowedLine", reader.readChars(URI.create(jar + "!/entry.txt"), StandardCharsets.UTF_8)
+                    .toString());
+            assertSame(borrowed, reader.jarFileSystem(jar));
+
+            reader.close();
+
+            assertTrue(borrowed.isOpen());
+        }
+    }
+
+    @Test
+    public void readChars_preservesOriginalSeparator() throws Exception {
+        URI unixUri = getClass().getResource("/unix-file.txt").toURI();
+        URI windowsUri = getClass().getResource("/windows-file.txt").toURI();
+
+        assertEquals("unixLine1\nunixLine2", reader.readChars(unixUri, StandardCharsets.UTF_8).toString());
+        assertEquals("windowsLine1\r\nwindowsLine2", reader.readChars(windowsUri, StandardCharsets.UTF_8).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readUnsupportedScheme_throwsException() throws Exception {
+        reader.read(URI.create("http://localhost/classpath-file.txt"));
+    }
+}
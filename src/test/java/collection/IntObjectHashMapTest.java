@@ -0,0 +1,87 @@
+package collection;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IntObjectHashMapTest {
+    @Test
+    public void putGetRemove() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+
+        assertNull(map.put(3, "three"));
+        assertEquals("three", map.put(3, "drei"));
+        assertNull(map.put(0, "zero"));
+        assertEquals(2, map.size());
+        assertEquals("drei", map.get(3));
+        assertEquals("zero", map.get(0));
+        assertNull(map.get(4));
+        assertEquals("none", map.getOrDefault(4, "none"));
+
+        assertEquals("zero", map.remove(0));
+        assertEquals("drei", map.remove(3));
+        assertNull(map.remove(3));
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullValue_isRejected() {
+        new IntObjectHashMap<String>().put(1, null);
+    }
+
+    @Test
+    public void randomOperations_matchHashMap() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>(2, 0.8f);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) assertEquals(expected.remove(key), map.remove(key));
+            else assertEquals(expected.put(key, i), map.put(key, i));
+        }
+
+        assertEquals(expected, map.asMap());
+        assertEquals(expected.size(), map.size());
+    }
+
+    @Test
+    public void forEachAndCursor_visitEveryEntryOnce() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        for (int key = 0; key < 50; key++) map.put(key, "v" + key);
+        Map<Integer, String> visited = new HashMap<>();
+
+        map.forEach((key, value) -> assertNull(visited.put(key, value)));
+        IntObjectHashMap<String>.Cursor cursor = map.cursor();
+        int count = 0;
+        while (cursor.next()) {
+            assertEquals("v" + cursor.key(), cursor.value());
+            count++;
+        }
+
+        assertEquals(map.asMap(), visited);
+        assertEquals(50, count);
+    }
+
+    @Test
+    public void asMap_isBackedByTheMap() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        Map<Integer, String> view = map.asMap();
+
+        assertNull(view.put(0, "zero"));
+        assertEquals("zero", map.get(0));
+        assertNull(view.get(0L));
+        map.put(1, "one");
+
+        assertEquals(Map.of(0, "zero", 1, "one"), view);
+        view.clear();
+        assertTrue(map.isEmpty());
+    }
+}
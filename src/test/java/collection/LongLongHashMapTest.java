@@ -0,0 +1,107 @@
+package collection;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LongLongHashMapTest {
+    @Test
+    public void putGetRemove() {
+        LongLongHashMap map = new LongLongHashMap(4, 0.75f, -1);
+
+        assertEquals(-1, map.put(10, 100));
+        assertEquals(100, map.put(10, 101));
+        assertEquals(-1, map.put(0, 7));
+        assertEquals(2, map.size());
+        assertEquals(101, map.get(10));
+        assertEquals(7, map.get(0));
+        assertEquals(-1, map.get(11));
+        assertEquals(5, map.getOrDefault(11, 5));
+
+        assertEquals(101, map.remove(10));
+        assertEquals(7, map.remove(0));
+        assertEquals(-1, map.remove(0));
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(10));
+    }
+
+    @Test
+    public void addTo_startsFromMissingValue() {
+        LongLongHashMap map = new LongLongHashMap(4, 0.5f, 100);
+
+        assertEquals(101, map.addTo(1, 1));
+        assertEquals(103, map.addTo(1, 2));
+        assertEquals(99, map.addTo(0, -1));
+    }
+
+    @Test
+    public void randomOperations_matchHashMap() {
+        LongLongHashMap map = new LongLongHashMap(2, 0.9f, Long.MIN_VALUE);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                Long previous = expected.remove(key);
+                assertEquals(previous == null ? Long.MIN_VALUE : previous, map.remove(key));
+            } else {
+                Long previous = expected.put(key, (long) i);
+                assertEquals(previous == null ? Long.MIN_VALUE : previous, map.put(key, i));
+            }
+        }
+
+        assertEquals(expected, map.asMap());
+        for (long key = -100; key < 4900; key++) assertEquals(expected.containsKey(key), map.containsKey(key));
+    }
+
+    @Test
+    public void forEachAndCursor_visitEveryEntryOnce() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 0; key < 100; key++) map.put(key, key * 2);
+        long[] sums = new long[2];
+
+        map.forEach((key, value) -> {
+            sums[0] += key;
+            sums[1] += value;
+        });
+        LongLongHashMap.Cursor cursor = map.cursor();
+        int count = 0;
+        while (cursor.next()) {
+            assertEquals(cursor.key() * 2, cursor.value());
+            count++;
+        }
+
+        assertEquals(4950, sums[0]);
+        assertEquals(9900, sums[1]);
+        assertEquals(100, count);
+        assertTrue(map.cursor().next());
+    }
+
+    @Test
+    public void asMap_isBackedByTheMap() {
+        LongLongHashMap map = new LongLongHashMap(8, 0.5f, -1);
+        Map<Long, Long> view = map.asMap();
+
+        assertNull(view.put(1L, 10L));
+        assertNull(view.get(2L));
+        assertNull(view.get("1"));
+        assertEquals(10, map.get(1));
+        map.put(2, 20);
+
+        assertEquals(Map.of(1L, 10L, 2L, 20L), view);
+        assertEquals(Long.valueOf(20), view.remove(2L));
+        assertEquals("{1=10}", map.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void loadFactorOfOne_isRejected() {
+        new LongLongHashMap(8, 1f, 0);
+    }
+}
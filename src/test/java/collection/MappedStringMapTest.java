@@ -0,0 +1,158 @@
+package collection;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedStringMapTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+    private Path file;
+
+    @Before
+    public void setUp() {
+        file = tempFolder.getRoot().toPath().resolve("map.bin");
+    }
+
+    @Test
+    public void putGetRemove() throws Exception {
+        try (MappedStringMap map = MappedStringMap.create(file, 16, 4096)) {
+            map.put("keyOne", "valueOne");
+            map.put("caf\u00e9", "cr\u00e8me");
+            map.put("keyOne", "valueOneUpdated");
+
+            assertEquals(2, map.size());
+            assertEquals("valueOneUpdated", map.get("keyOne"));
+            assertEquals("cr\u00e8me", map.get("caf\u00e9"));
+            assertNull(map.get("keyTwo"));
+
+            assertTrue(map.remove("keyOne"));
+            assertFalse(map.remove("keyOne"));
+            assertFalse(map.containsKey("keyOne"));
+            assertEquals(1, map.size());
+            map.put("keyOne", "back");
+            assertEquals("back", map.get("keyOne"));
+            assertEquals(2, map.size());
+        }
+    }
+
+    @Test
+    public void getBytes_returnsUtf8Slice() throws Exception {
+        try (MappedStringMap map = MappedStringMap.create(file, 16, 4096)) {
+            map.put("key".getBytes(StandardCharsets.UTF_8), "value".getBytes(StandardCharsets.UTF_8));
+
+            ByteBuffer value = map.getBytes("key".getBytes(StandardCharsets.UTF_8));
+
+            assertTrue(value.isReadOnly());
+            assertEquals(ByteBuffer.wrap("value".getBytes(StandardCharsets.UTF_8)), value);
+        }
+    }
+
+    @Test
+    public void reopenReadOnly_seesEntriesAcrossSegments() throws Exception {
+        Map<String, String> expected = new HashMap<>();
+        try (MappedStringMap map = MappedStringMap.create(file, 1000, 256)) {
+            for (int i = 0; i < 1000; i++) {
+                map.put("key" + i, "value" + i);
+                expected.put("key" + i, "value" + i);
+            }
+            map.remove("key7");
+            expected.remove("key7");
+        }
+        assertTrue(Files.size(file) > 50 * 256);
+
+        try (MappedStringMap map = MappedStringMap.openReadOnly(file)) {
+            assertEquals(999, map.size());
+            assertEquals("value999", map.get("key999"));
+            assertNull(map.get("key7"));
+            assertEquals(expected, map.asMap());
+            try {
+                map.put("key", "value");
+                fail();
+            } catch (IllegalStateException expectedException) {
+                // read-only
+            }
+        }
+    }
+
+    @Test
+    public void reopenForWriting_appendsAfterExistingRecords() throws Exception {
+        try (MappedStringMap map = MappedStringMap.create(file, 16, 4096)) {
+            map.put("keyOne", "valueOne");
+        }
+        try (MappedStringMap map = MappedStringMap.open(file)) {
+            map.put("keyTwo", "valueTwo");
+        }
+
+        try (MappedStringMap map = MappedStringMap.openReadOnly(file)) {
+            assertEquals(Map.of("keyOne", "valueOne", "keyTwo", "valueTwo"), map.asMap());
+        }
+    }
+
+    @Test
+    public void fullTable_rejectsNewKeys() throws Exception {
+        try (MappedStringMap map = MappedStringMap.create(file, 2, 4096)) {
+            try {
+                for (int i = 0; i < 100; i++) map.put("key" + i, "value");
+                fail();
+            } catch (IllegalStateException expected) {
+                assertTrue(expected.getMessage().startsWith("Map is full"));
+            }
+            map.put("key0", "updated");
+            assertEquals("updated", map.get("key0"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void recordLargerThanSegment_isRejected() throws Exception {
+        try (MappedStringMap map = MappedStringMap.create(file, 2, 64)) {
+            map.put("key", new String(new char[100]));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void openOtherFile_fails() throws Exception {
+        Files.write(file, new byte[100]);
+        MappedStringMap.openReadOnly(file).close();
+    }
+
+    @Test
+    public void concurrentReader_seesWholeValues() throws Exception {
+        try (MappedStringMap map = MappedStringMap.create(file, 100, 4096)) {
+            AtomicReference<String> failure = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    for (int key = 0; key < 100; key++) {
+                        String value = map.get("key" + key);
+                        if (value != null && !value.startsWith("key" + key + "-")) failure.set(value);
+                    }
+                }
+            });
+            reader.start();
+            for (int round = 0; round < 200; round++) {
+                for (int key = 0; key < 100; key++) map.put("key" + key, "key" + key + "-" + round);
+            }
+            reader.interrupt();
+            reader.join();
+
+            assertNull(failure.get());
+            assertEquals("key5-199", map.get("key5"));
+        }
+    }
+}
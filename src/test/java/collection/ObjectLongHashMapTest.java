@@ -0,0 +1,81 @@
+package collection;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ObjectLongHashMapTest {
+    @Test
+    public void putGetRemove() {
+        ObjectLongHashMap<String> map = new ObjectLongHashMap<>(4, 0.75f, -1);
+
+        assertEquals(-1, map.put("one", 1));
+        assertEquals(1, map.put("one", 11));
+        assertEquals(11, map.get(new String("one")));
+        assertEquals(-1, map.get("two"));
+        assertEquals(-1, map.get(null));
+        assertEquals(2, map.getOrDefault("two", 2));
+
+        assertEquals(11, map.remove("one"));
+        assertEquals(-1, map.remove("one"));
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey("one"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullKey_isRejected() {
+        new ObjectLongHashMap<String>().put(null, 1);
+    }
+
+    @Test
+    public void addTo_countsOccurrences() {
+        ObjectLongHashMap<String> counts = new ObjectLongHashMap<>();
+        for (String word : "a b a c a b".split(" ")) counts.addTo(word, 1);
+
+        assertEquals(Map.of("a", 3L, "b", 2L, "c", 1L), counts.asMap());
+    }
+
+    @Test
+    public void randomOperations_matchHashMap() {
+        ObjectLongHashMap<String> map = new ObjectLongHashMap<>(2, 0.9f, Long.MIN_VALUE);
+        Map<String, Long> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 200_000; i++) {
+            String key = "key" + random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                Long previous = expected.remove(key);
+                assertEquals(previous == null ? Long.MIN_VALUE : previous, map.remove(key));
+            } else {
+                Long previous = expected.put(key, (long) i);
+                assertEquals(previous == null ? Long.MIN_VALUE : previous, map.put(key, i));
+            }
+        }
+
+        assertEquals(expected, map.asMap());
+    }
+
+    @Test
+    public void forEachAndCursor_visitEveryEntryOnce() {
+        ObjectLongHashMap<String> map = new ObjectLongHashMap<>();
+        for (long i = 0; i < 50; i++) map.put("k" + i, i);
+        Map<String, Long> visited = new HashMap<>();
+
+        map.forEach((key, value) -> assertNull(visited.put(key, value)));
+        ObjectLongHashMap<String>.Cursor cursor = map.cursor();
+        int count = 0;
+        while (cursor.next()) {
+            assertEquals("k" + cursor.value(), cursor.key());
+            count++;
+        }
+
+        assertEquals(map.asMap(), visited);
+        assertEquals(50, count);
+    }
+}
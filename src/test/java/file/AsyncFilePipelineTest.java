@@ -0,0 +1,295 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncFilePipelineTest {
+    private FileSystem fs;
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        file = fs.getPath("/index.bin");
+        Files.write(file, "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void readAndWriteAtOffsets() throws Exception {
+        try (AsyncFilePipeline pipeline = AsyncFilePipeline.open(file)) {
+            pipeline.write(10, ascii("ABCDE")).get();
+
+            assertEquals("89ABCDEf", string(pipeline.read(8, 8).get()));
+        }
+    }
+
+    @Test
+    public void readPastEnd_returnsShortBuffer() throws Exception {
+        try (AsyncFilePipeline pipeline = AsyncFilePipeline.open(file)) {
+            assertEquals("ij", string(pipeline.read(18, 10).get()));
+            assertEquals("", string(pipeline.read(40, 10).get()));
+        }
+    }
+
+    @Test
+    public void queuedAdjacentReads_areMerged() throws Exception {
+        GatedChannel channel = new GatedChannel(file);
+        try (AsyncFilePipeline pipeline = new AsyncFilePipeline(channel, 1, 1024)) {
+            CompletableFuture<ByteBuffer> first = pipeline.read(0, 2);
+            List<CompletableFuture<ByteBuffer>> queued = new ArrayList<>();
+            for (int position = 4; position < 20; position += 4) queued.add(pipeline.read(position, 4));
+            queued.add(pipeline.read(6, 4));
+            channel.open();
+
+            assertEquals("01", string(first.get()));
+            assertEquals("4567", string(queued.get(0).get()));
+            assertEquals("ghij", string(queued.get(3).get()));
+            assertEquals("6789", string(queued.get(4).get()));
+            assertEquals(6, pipeline.stats().requests());
+            assertEquals(2, pipeline.stats().operations());
+            assertEquals(1, pipeline.stats().peakInFlight());
+        }
+    }
+
+    @Test
+    public void queuedAdjacentWrites_areMerged() throws Exception {
+        GatedChannel channel = new GatedChannel(file);
+        try (AsyncFilePipeline pipeline = new AsyncFilePipeline(channel, 1, 1024)) {
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            writes.add(pipeline.write(0, ascii("x")));
+            writes.add(pipeline.write(4, ascii("EF")));
+            writes.add(pipeline.write(2, ascii("CD")));
+            writes.add(pipeline.write(12, ascii("yy")));
+            channel.open();
+            for (CompletableFuture<Void> write : writes) write.get();
+
+            assertEquals(3, pipeline.stats().operations());
+        }
+        assertEquals("x1CDEF6789abyyefghij", new String(Files.readAllBytes(file), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void mergedReads_respectMaxMergeBytes() throws Exception {
+        GatedChannel channel = new GatedChannel(file);
+        try (AsyncFilePipeline pipeline = new AsyncFilePipeline(channel, 1, 8)) {
+            pipeline.read(0, 1);
+            List<CompletableFuture<ByteBuffer>> reads = new ArrayList<>();
+            for (int position = 0; position < 20; position += 4) reads.add(pipeline.read(position, 4));
+            channel.open();
+            for (CompletableFuture<ByteBuffer> read : reads) read.get();
+
+            assertEquals(4, pipeline.stats().operations());
+        }
+    }
+
+    @Test
+    public void inFlightOperations_areCapped() throws Exception {
+        try (AsyncFilePipeline pipeline = new AsyncFilePipeline(
+                AsynchronousFileChannel.open(file, StandardOpenOption.READ), 3, 0)) {
+            List<CompletableFuture<ByteBuffer>> reads = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) reads.add(pipeline.read(i % 20, 1));
+            for (int i = 0; i < reads.size(); i++) {
+                assertEquals("0123456789abcdefghij".substring(i % 20, i % 20 + 1), string(reads.get(i).get()));
+            }
+
+            assertEquals(1000, pipeline.stats().operations());
+            assertTrue(pipeline.stats().peakInFlight() <= 3);
+        }
+    }
+
+    @Test
+    public void fullQueue_rejectsRequests() throws Exception {
+        GatedChannel channel = new GatedChannel(file);
+        try (AsyncFilePipeline pipeline = new AsyncFilePipeline(channel, 1, 0, 2)) {
+            CompletableFuture<ByteBuffer> inFlight = pipeline.read(0, 1);
+            CompletableFuture<ByteBuffer> queued = pipeline.read(4, 1);
+            pipeline.read(8, 1);
+            CompletableFuture<ByteBuffer> rejected = pipeline.read(12, 1);
+
+            assertTrue(rejected.isCompletedExceptionally());
+            try {
+                rejected.get();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+            channel.open();
+            assertEquals("0", string(inFlight.get()));
+            assertEquals("4", string(queued.get()));
+            assertEquals(3, pipeline.stats().requests());
+            assertEquals(1, pipeline.stats().rejected());
+        }
+    }
+
+    @Test
+    public void close_returnsAfterFuturesComplete() throws Exception {
+        GatedChannel channel = new GatedChannel(file);
+        AsyncFilePipeline pipeline = new AsyncFilePipeline(channel, 1, 0);
+        List<CompletableFuture<ByteBuffer>> reads = new ArrayList<>();
+        for (int position = 0; position < 20; position++) reads.add(pipeline.read(position, 1));
+        Thread closer = new Thread(() -> {
+            try {
+                pipeline.close();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            for (CompletableFuture<ByteBuffer> read : reads) assertTrue(read.isDone());
+        });
+        List<Throwable> failures = new ArrayList<>();
+        closer.setUncaughtExceptionHandler((thread, e) -> failures.add(e));
+        closer.start();
+        assertFalse(reads.get(0).isDone());
+        channel.open();
+        closer.join();
+
+        assertEquals(List.of(), failures);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeMaxMergeBytes_throws() throws Exception {
+        new AsyncFilePipeline(AsynchronousFileChannel.open(file, StandardOpenOption.READ), 1, -1);
+    }
+
+    @Test(expected = ClosedChannelException.class)
+    public void requestAfterClose_fails() throws Throwable {
+        AsyncFilePipeline pipeline = AsyncFilePipeline.open(file);
+        pipeline.close();
+        try {
+            pipeline.read(0, 1).get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static ByteBuffer ascii(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String string(ByteBuffer buffer) {
+        return StandardCharsets.US_ASCII.decode(buffer).toString();
+    }
+
+    /**
+     * Holds back reads and writes until {@link #open()} is called, so that requests queue up in the pipeline.
+     */
+    private static class GatedChannel extends AsynchronousFileChannel {
+        private final AsynchronousFileChannel delegate;
+        private final List<Runnable> held = new ArrayList<>();
+        private boolean open;
+
+        GatedChannel(Path file) throws IOException {
+            delegate = AsynchronousFileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        void open() {
+            List<Runnable> operations;
+            synchronized (this) {
+                open = true;
+                operations = new ArrayList<>(held);
+            }
+            operations.forEach(Runnable::run);
+        }
+
+        private synchronized boolean hold(Runnable operation) {
+            if (!open) held.add(operation);
+            return !open;
+        }
+
+        @Override
+        public <A> void read(ByteBuffer dst, long position, A attachment,
+                             CompletionHandler<Integer, ? super A> handler) {
+            if (!hold(() -> delegate.read(dst, position, attachment, handler))) {
+                delegate.read(dst, position, attachment, handler);
+            }
+        }
+
+        @Override
+        public <A> void write(ByteBuffer src, long position, A attachment,
+                              CompletionHandler<Integer, ? super A> handler) {
+            if (!hold(() -> delegate.write(src, position, attachment, handler))) {
+                delegate.write(src, position, attachment, handler);
+            }
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public AsynchronousFileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public <A> void lock(long position, long size, boolean shared, A attachment,
+                             CompletionHandler<FileLock, ? super A> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<FileLock> lock(long position, long size, boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<Integer> read(ByteBuffer dst, long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<Integer> write(ByteBuffer src, long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
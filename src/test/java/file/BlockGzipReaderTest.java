@@ -0,0 +1,94 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BlockGzipReaderTest {
+    private FileSystem fs;
+    private Path file;
+    private List<String> lines;
+
+    @Before
+    public void setUp() throws Exception {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        file = fs.getPath("/lines.gz");
+        lines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) lines.add("line " + i);
+        lines.add(String.join("", Collections.nCopies(1000, "long")));
+        lines.add("");
+        lines.add("last");
+        try (BlockGzipWriter writer = new BlockGzipWriter(file, ForkJoinPool.commonPool(), 3, 64,
+                Deflater.BEST_SPEED)) {
+            for (String line : lines) writer.writeLine(line);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void lines_roundTrip() throws Exception {
+        try (BlockGzipReader reader = new BlockGzipReader(file, ForkJoinPool.commonPool(), 4)) {
+            assertTrue(reader.blockCount() > 10);
+            assertEquals(lines.size(), reader.lineCount());
+            assertEquals(lines, reader.lines().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void linesFrom_startsAtAnyLine() throws Exception {
+        try (BlockGzipReader reader = BlockGzipReader.open(file)) {
+            for (int from : new int[]{0, 1, 7, 8, 250, 499, 500, 501, lines.size()}) {
+                assertEquals("from " + from, lines.subList(from, lines.size()),
+                        reader.lines(from).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    public void emptyFile_hasNoLines() throws Exception {
+        BlockGzipWriter.open(file).close();
+
+        try (BlockGzipReader reader = BlockGzipReader.open(file)) {
+            assertEquals(0, reader.lineCount());
+            assertEquals(0, reader.lines().count());
+        }
+    }
+
+    @Test
+    public void corruptBlock_isReported() throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x55, 0x55}), 12);
+        }
+
+        try (BlockGzipReader reader = BlockGzipReader.open(file)) {
+            reader.lines().forEach(line -> { });
+            fail();
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+}
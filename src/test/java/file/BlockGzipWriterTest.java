@@ -0,0 +1,99 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BlockGzipWriterTest {
+    private FileSystem fs;
+    private Path file;
+
+    @Before
+    public void setUp() {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        file = fs.getPath("/lines.gz");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void output_isReadableAsOneGzipStream() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) lines.add("line " + i + " caf\u00e9");
+        try (BlockGzipWriter writer = new BlockGzipWriter(file, ForkJoinPool.commonPool(), 2, 100,
+                Deflater.BEST_SPEED)) {
+            for (String line : lines) writer.writeLine(line);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            assertEquals(lines, reader.lines().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void blocks_endOnLineBoundaries() throws Exception {
+        try (BlockGzipWriter writer = new BlockGzipWriter(file, ForkJoinPool.commonPool(), 1, 10,
+                Deflater.DEFAULT_COMPRESSION)) {
+            writer.writeLine("0123456789abc");
+            writer.writeLine("x");
+            writer.writeLine("y");
+        }
+
+        try (BlockGzipReader reader = BlockGzipReader.open(file)) {
+            assertEquals(2, reader.blockCount());
+            assertEquals("0123456789abc\n", new String(reader.block(0), StandardCharsets.UTF_8));
+            assertEquals("x\ny\n", new String(reader.block(1), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void noLines_writesEmptyFileAndIndex() throws Exception {
+        BlockGzipWriter.open(file).close();
+
+        assertEquals(0, Files.size(file));
+        assertTrue(Files.exists(BlockGzipWriter.indexFor(file)));
+        assertEquals(fs.getPath("/lines.gz.idx"), BlockGzipWriter.indexFor(file));
+    }
+
+    @Test
+    public void lineTerminators_areRejected() throws Exception {
+        try (BlockGzipWriter writer = BlockGzipWriter.open(file)) {
+            for (String line : List.of("a\nb", "a\rb", "a\r\n")) {
+                try {
+                    writer.writeLine(line);
+                    throw new AssertionError("accepted " + line);
+                } catch (IllegalArgumentException e) {
+                    // expected
+                }
+            }
+            writer.writeLine("ok");
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            assertEquals(List.of("ok"), reader.lines().collect(Collectors.toList()));
+        }
+    }
+}
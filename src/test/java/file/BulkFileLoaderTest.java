@@ -0,0 +1,148 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BulkFileLoaderTest {
+    private FileSystem fs;
+    private List<Path> files;
+
+    @Before
+    public void setUp() throws Exception {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        files = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Path dir = Files.createDirectories(fs.getPath("/dir" + i % 4));
+            files.add(Files.write(dir.resolve("file" + i), ("content " + i).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void loadAll_returnsResultsInInputOrder() throws Exception {
+        try (BulkFileLoader loader = new BulkFileLoader()) {
+            List<BulkFileLoader.Result> results = loader.loadAll(files);
+
+            assertEquals(files.size(), results.size());
+            for (int i = 0; i < files.size(); i++) {
+                assertEquals(files.get(i), results.get(i).path());
+                assertArrayEquals(("content " + i).getBytes(StandardCharsets.UTF_8), results.get(i).bytes());
+            }
+        }
+    }
+
+    @Test
+    public void loadAll_failedReadDoesNotCancelBatch() throws Exception {
+        List<Path> paths = new ArrayList<>(files.subList(0, 10));
+        paths.add(5, fs.getPath("/dir0/missing"));
+        paths.add(fs.getPath("/missingDir/file"));
+
+        try (BulkFileLoader loader = new BulkFileLoader(1)) {
+            List<BulkFileLoader.Result> results = loader.loadAll(paths);
+
+            assertEquals(12, results.size());
+            assertEquals(10, results.stream().filter(BulkFileLoader.Result::isSuccess).count());
+            assertFalse(results.get(5).isSuccess());
+            assertTrue(results.get(5).failure() instanceof NoSuchFileException);
+            assertTrue(results.get(11).failure() instanceof NoSuchFileException);
+            assertArrayEquals("content 5".getBytes(StandardCharsets.UTF_8), results.get(6).bytes());
+        }
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void bytes_rethrowsFailure() throws Exception {
+        try (BulkFileLoader loader = new BulkFileLoader()) {
+            loader.loadAll(Stream.of(fs.getPath("/missing"))).get(0).bytes();
+        }
+    }
+
+    @Test
+    public void loadAsCompleted_returnsEveryResult() throws Exception {
+        try (BulkFileLoader loader = new BulkFileLoader(2);
+             Stream<BulkFileLoader.Result> results = loader.loadAsCompleted(files.stream())) {
+            Set<Path> loaded = results.map(BulkFileLoader.Result::path).collect(Collectors.toSet());
+
+            assertEquals(Set.copyOf(files), loaded);
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void loadAsCompleted_uncheckedFailures_areReportedAsResults() throws Exception {
+        fs.close();
+
+        try (BulkFileLoader loader = new BulkFileLoader(2);
+             Stream<BulkFileLoader.Result> results = loader.loadAsCompleted(files.subList(0, 10))) {
+            List<BulkFileLoader.Result> failed = results.collect(Collectors.toList());
+
+            assertEquals(10, failed.size());
+            for (BulkFileLoader.Result result : failed) {
+                assertFalse(result.isSuccess());
+                assertTrue(result.failure().getCause() instanceof RuntimeException);
+            }
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void loadAsCompleted_rejectedReads_areReportedAsResults() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+
+        try (BulkFileLoader loader = new BulkFileLoader(pool, 8);
+             Stream<BulkFileLoader.Result> results = loader.loadAsCompleted(files.subList(0, 3))) {
+            List<BulkFileLoader.Result> rejected = results.collect(Collectors.toList());
+
+            assertEquals(3, rejected.size());
+            for (BulkFileLoader.Result result : rejected) {
+                assertTrue(result.failure() instanceof IOException);
+                assertTrue(result.failure().getCause() instanceof RejectedExecutionException);
+            }
+        }
+    }
+
+    @Test
+    public void loadAll_onPlatformPool_leavesPoolRunning() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            try (BulkFileLoader loader = new BulkFileLoader(pool, 8)) {
+                assertEquals(200, loader.loadAll(files).stream().filter(BulkFileLoader.Result::isSuccess).count());
+            }
+            assertFalse(pool.isShutdown());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositivePermits_throws() {
+        new BulkFileLoader(0);
+    }
+}
@@ -0,0 +1,94 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExternalSortTest {
+    private FileSystem fs;
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws Exception {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        tempDir = Files.createDirectory(fs.getPath("/tmp"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void sortWithinBudget_doesNotSpill() throws Exception {
+        ExternalSort sort = new ExternalSort(tempDir, 1024 * 1024, Comparator.naturalOrder());
+
+        try (Stream<String> sorted = sort.sort(Stream.of("fileOneLine2", "fileOneLine1"))) {
+            assertEquals(0, Files.list(tempDir).count());
+            assertEquals(Arrays.asList("fileOneLine1", "fileOneLine2"), sorted.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void sortBeyondBudget_spillsAndMergesRuns() throws Exception {
+        List<String> lines = IntStream.range(0, 10_000).mapToObj(i -> "line" + i).collect(Collectors.toList());
+        List<String> shuffled = new ArrayList<>(lines);
+        Collections.shuffle(shuffled, new Random(42));
+        ExternalSort sort = new ExternalSort(tempDir, 64 * 1024, Comparator.naturalOrder(), 2);
+
+        try (Stream<String> sorted = sort.sort(shuffled.stream())) {
+            assertTrue(Files.list(tempDir).count() > 1);
+            Collections.sort(lines);
+            assertEquals(lines, sorted.collect(Collectors.toList()));
+        }
+        assertEquals(0, Files.list(tempDir).count());
+    }
+
+    @Test
+    public void sortWithComparator() throws Exception {
+        ExternalSort sort = new ExternalSort(tempDir, 0, Comparator.comparing(String::length).reversed(), 1);
+
+        try (Stream<String> sorted = sort.sort(Stream.of("b", "ccc", "", "dd"))) {
+            assertEquals(Arrays.asList("ccc", "dd", "b", ""), sorted.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void sortFile() throws Exception {
+        Path file = fs.getPath("/fileOne.txt");
+        Files.write(file, Arrays.asList("fileOneLine2", "fileOneLine1"), StandardCharsets.UTF_8);
+        ExternalSort sort = new ExternalSort(tempDir, 0, Comparator.naturalOrder(), 1);
+
+        try (Stream<String> sorted = sort.sort(file)) {
+            assertEquals(Arrays.asList("fileOneLine1", "fileOneLine2"), sorted.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void sortEmptyStream() throws Exception {
+        ExternalSort sort = new ExternalSort(tempDir, 0, Comparator.naturalOrder(), 1);
+
+        try (Stream<String> sorted = sort.sort(Stream.empty())) {
+            assertEquals(0, sorted.count());
+        }
+    }
+}
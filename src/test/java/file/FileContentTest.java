@@ -0,0 +1,91 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class FileContentTest {
+    private static final String FILE_ONE_CONTENTS = "fileOneLine1\nfileOneLine2\n";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+    private Path fileOne;
+
+    @Before
+    public void setUp() throws Exception {
+        fileOne = Files.write(tempFolder.newFile("fileOne.txt").toPath(),
+                FILE_ONE_CONTENTS.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readBelowThreshold_copiesOntoHeap() throws Exception {
+        FileContent content = FileContent.read(fileOne, Long.MAX_VALUE);
+
+        assertFalse(content.isMapped());
+        assertEquals(FILE_ONE_CONTENTS, content.decode(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readAtThreshold_mapsFile() throws Exception {
+        FileContent content = FileContent.read(fileOne, FILE_ONE_CONTENTS.length());
+
+        assertTrue(content.isMapped());
+        assertTrue(content.buffers().get(0).isDirect());
+        assertEquals(FILE_ONE_CONTENTS, content.decode(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readInChunks_addressesAcrossChunks() throws Exception {
+        FileContent content = FileContent.read(fileOne, 0, 3);
+
+        assertEquals(4, content.buffers().size());
+        assertEquals(FILE_ONE_CONTENTS.length(), content.size());
+        assertEquals('L', content.get(7));
+        assertEquals("fileOneLine2", content.decode(13, 12, StandardCharsets.UTF_8));
+        assertEquals(FILE_ONE_CONTENTS, content.decode(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void sliceWithinChunk_isView() throws Exception {
+        FileContent content = FileContent.read(fileOne, 0);
+        ByteBuffer slice = content.slice(13, 12);
+
+        assertTrue(slice.isDirect());
+        assertTrue(slice.isReadOnly());
+        assertEquals("fileOneLine2", StandardCharsets.UTF_8.decode(slice).toString());
+    }
+
+    @Test
+    public void readEmptyFile() throws Exception {
+        Path empty = tempFolder.newFile("empty.txt").toPath();
+
+        FileContent content = FileContent.read(empty, 0);
+
+        assertEquals(0, content.size());
+        assertEquals("", content.decode(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readFromFileSystemWithoutMapping_copiesOntoHeap() throws Exception {
+        try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+            Path jimfsFile = Files.write(fs.getPath("/fileOne.txt"),
+                    FILE_ONE_CONTENTS.getBytes(StandardCharsets.UTF_8));
+
+            FileContent content = FileContent.read(jimfsFile, 0);
+
+            assertFalse(content.isMapped());
+            assertEquals(FILE_ONE_CONTENTS, content.decode(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderMalfunctionError;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GroupCommitWriterTest {
+    private FileSystem fs;
+    private Path file;
+
+    @Before
+    public void setUp() {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        file = fs.getPath("/fileToWrite.txt");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void writeLines_perBatchDurability() throws Exception {
+        try (GroupCommitWriter writer = GroupCommitWriter.open(file, StandardCharsets.UTF_8,
+                GroupCommitWriter.Durability.perBatch())) {
+            writer.append("lineOne");
+            writer.append("lineTwo").get(5, TimeUnit.SECONDS);
+
+            assertEquals(Arrays.asList("lineOne", "lineTwo"), Files.readAllLines(file, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void writeLines_syncEveryInterval() throws Exception {
+        try (GroupCommitWriter writer = GroupCommitWriter.open(file, StandardCharsets.UTF_8,
+                GroupCommitWriter.Durability.every(Duration.ofMillis(10)))) {
+            writer.append("lineOne").get(5, TimeUnit.SECONDS);
+
+            assertEquals(Arrays.asList("lineOne"), Files.readAllLines(file, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void writeLines_neverSync() throws Exception {
+        try (GroupCommitWriter writer = GroupCommitWriter.open(file, StandardCharsets.UTF_8,
+                GroupCommitWriter.Durability.never())) {
+            writer.append("lineOne").get(5, TimeUnit.SECONDS);
+
+            assertEquals(Arrays.asList("lineOne"), Files.readAllLines(file, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void writeLinesFromManyThreads_keepsEveryLine() throws Exception {
+        List<String> lines = IntStream.range(0, 10_000).mapToObj(i -> "line" + i).collect(Collectors.toList());
+
+        try (GroupCommitWriter writer = GroupCommitWriter.open(file, StandardCharsets.UTF_8,
+                GroupCommitWriter.Durability.perBatch())) {
+            CompletableFuture.allOf(lines.parallelStream().map(writer::append).toArray(CompletableFuture[]::new))
+                    .get(10, TimeUnit.SECONDS);
+        }
+
+        Set<String> written = new HashSet<>(Files.readAllLines(file, StandardCharsets.UTF_8));
+        assertEquals(new HashSet<>(lines), written);
+    }
+
+    @Test
+    public void close_drainsPendingLines() throws Exception {
+        GroupCommitWriter writer = GroupCommitWriter.open(file, StandardCharsets.UTF_8,
+                GroupCommitWriter.Durability.every(Duration.ofHours(1)));
+        CompletableFuture<Void> pending = writer.append("lineOne");
+
+        writer.close();
+
+        pending.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("lineOne"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void appendToExistingFile() throws Exception {
+        Files.write(file, Arrays.asList("lineOne"), StandardCharsets.UTF_8);
+
+        try (GroupCommitWriter writer = GroupCommitWriter.open(file, StandardCharsets.UTF_8,
+                GroupCommitWriter.Durability.perBatch())) {
+            writer.append("lineTwo").get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(Arrays.asList("lineOne", "lineTwo"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void appendAfterClose_throwsException() throws Exception {
+        GroupCommitWriter writer = GroupCommitWriter.open(file, StandardCharsets.UTF_8,
+                GroupCommitWriter.Durability.perBatch());
+        writer.close();
+
+        writer.append("lineOne");
+    }
+
+    @Test
+    public void unencodableCharacters_areReplacedWithoutFailingOtherLines() throws Exception {
+        try (GroupCommitWriter writer = GroupCommitWriter.open(file, StandardCharsets.UTF_8,
+                GroupCommitWriter.Durability.perBatch())) {
+            CompletableFuture<Void> bad = writer.append("bad\uD800line");
+            CompletableFuture<Void> good = writer.append("goodLine");
+
+            bad.get(5, TimeUnit.SECONDS);
+            good.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(List.of("bad?line", "goodLine"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void unexpectedFailureInWriter_failsPendingAndLaterLines() throws Exception {
+        GroupCommitWriter writer = GroupCommitWriter.open(file, new FailingCharset(),
+                GroupCommitWriter.Durability.perBatch());
+        try {
+            writer.append("lineOne!").get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertTrue(writer.append("lineTwo").isCompletedExceptionally());
+        try {
+            writer.close();
+            fail();
+        } catch (IOException expected) {
+            assertTrue(expected.getCause() instanceof CoderMalfunctionError);
+        }
+    }
+
+    private static class FailingCharset extends Charset {
+        FailingCharset() {
+            super("x-failing", null);
+        }
+
+        @Override
+        public boolean contains(Charset cs) {
+            return false;
+        }
+
+        @Override
+        public CharsetDecoder newDecoder() {
+            return StandardCharsets.UTF_8.newDecoder();
+        }
+
+        @Override
+        public CharsetEncoder newEncoder() {
+            return new CharsetEncoder(this, 1, 1) {
+                @Override
+                protected CoderResult encodeLoop(CharBuffer in, ByteBuffer out) {
+                    while (in.hasRemaining()) {
+                        if (!out.hasRemaining()) return CoderResult.OVERFLOW;
+                        char c = in.get();
+                        if (c == '!') throw new IllegalStateException("encoder failure");
+                        out.put((byte) c);
+                    }
+                    return CoderResult.UNDERFLOW;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package file;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LineCursorTest {
+    @Test
+    public void readUnixFile_reportsLfTerminator() throws Exception {
+        try (LineCursor cursor = LineCursor.of(getClass().getResourceAsStream("/unix-file.txt"))) {
+            assertTrue(cursor.next());
+            assertEquals("unixLine1", cursor.chars().toString());
+            assertEquals(LineCursor.Terminator.LF, cursor.terminator());
+            assertTrue(cursor.next());
+            assertEquals("unixLine2", cursor.chars().toString());
+            assertEquals(LineCursor.Terminator.NONE, cursor.terminator());
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void readWindowsFile_reportsCrLfTerminator() throws Exception {
+        try (LineCursor cursor = LineCursor.of(getClass().getResourceAsStream("/windows-file.txt"))) {
+            assertTrue(cursor.next());
+            assertEquals("windowsLine1", cursor.chars().toString());
+            assertEquals(LineCursor.Terminator.CRLF, cursor.terminator());
+        }
+    }
+
+    @Test
+    public void readLines_canPreserveOriginalSeparator() throws Exception {
+        assertEquals("unixLine1\nunixLine2", rejoin(getClass().getResourceAsStream("/unix-file.txt")));
+        assertEquals("windowsLine1\r\nwindowsLine2", rejoin(getClass().getResourceAsStream("/windows-file.txt")));
+    }
+
+    @Test
+    public void readMixedTerminators() throws Exception {
+        String contents = "one\rtwo\r\nthree\n\nfive\r";
+
+        assertEquals(contents, rejoin(new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void readFromByteBuffer_isNotCopied() throws Exception {
+        ByteBuffer source = ByteBuffer.wrap("lineOne\r\nlineTwo".getBytes(StandardCharsets.UTF_8));
+
+        try (LineCursor cursor = LineCursor.of(source)) {
+            assertTrue(cursor.next());
+            source.put(0, (byte) 'L');
+
+            assertEquals("LineOne", StandardCharsets.UTF_8.decode(cursor.bytes()).toString());
+            assertEquals(7, cursor.length());
+        }
+    }
+
+    @Test
+    public void readLinesLongerThanBuffer() throws Exception {
+        char[] longLine = new char[20_000];
+        Arrays.fill(longLine, '\u00e9');
+        String contents = new String(longLine) + "\r\n" + "short\n" + new String(longLine);
+
+        List<String> lines = new ArrayList<>();
+        try (LineCursor cursor = LineCursor.of(new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8)))) {
+            while (cursor.next()) lines.add(cursor.chars().toString());
+        }
+
+        assertEquals(Arrays.asList(new String(longLine), "short", new String(longLine)), lines);
+    }
+
+    @Test
+    public void readEmptyInput_hasNoLines() throws Exception {
+        try (LineCursor cursor = LineCursor.of(new ByteArrayInputStream(new byte[0]))) {
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void charsView_isReusedAcrossLines() throws Exception {
+        try (LineCursor cursor = LineCursor.of(getClass().getResourceAsStream("/unix-file.txt"))) {
+            cursor.next();
+            CharSequence first = cursor.chars();
+            cursor.next();
+
+            assertSame(first, cursor.chars());
+        }
+    }
+
+    private String rejoin(InputStream is) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        try (LineCursor cursor = LineCursor.of(is)) {
+            while (cursor.next()) sb.append(cursor.chars()).append(cursor.terminator().separator());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package file;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class MappedLinesTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = tempFolder.newFile("lines.txt").toPath();
+    }
+
+    @Test
+    public void readLines_sameAsFilesLines() throws Exception {
+        Files.write(file, "fileOneLine1\nfileOneLine2\n".getBytes(StandardCharsets.UTF_8));
+
+        try (Stream<String> stream = MappedLines.lines(file, StandardCharsets.UTF_8)) {
+            assertEquals(Arrays.asList("fileOneLine1", "fileOneLine2"), stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void readLines_stripsCarriageReturnBeforeNewline() throws Exception {
+        Files.write(file, "windowsLine1\r\nwindowsLine2".getBytes(StandardCharsets.UTF_8));
+
+        try (Stream<String> stream = MappedLines.lines(file, StandardCharsets.UTF_8)) {
+            assertEquals(Arrays.asList("windowsLine1", "windowsLine2"), stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void readLines_keepsEmptyLines() throws Exception {
+        Files.write(file, "\none\n\n".getBytes(StandardCharsets.UTF_8));
+
+        try (Stream<String> stream = MappedLines.lines(file, StandardCharsets.UTF_8)) {
+            assertEquals(Arrays.asList("", "one", ""), stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void readEmptyFile_hasNoLines() throws Exception {
+        try (Stream<String> stream = MappedLines.lines(file, StandardCharsets.UTF_8)) {
+            assertEquals(Collections.emptyList(), stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void readLinesInParallel_keepsEveryLineInOrder() throws Exception {
+        List<String> lines = IntStream.range(0, 100_000).mapToObj(i -> "line" + i).collect(Collectors.toList());
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        try (Stream<String> stream = MappedLines.lines(file, StandardCharsets.UTF_8)) {
+            assertEquals(lines, stream.parallel().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void split_happensAtLineBoundary() throws Exception {
+        List<String> lines = IntStream.range(0, 100_000).mapToObj(i -> "line" + i).collect(Collectors.toList());
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        try (Stream<String> stream = MappedLines.lines(file, StandardCharsets.UTF_8)) {
+            Spliterator<String> suffix = stream.spliterator();
+            Spliterator<String> prefix = suffix.trySplit();
+
+            assertNotNull(prefix);
+            String[] lastOfPrefix = new String[1];
+            prefix.forEachRemaining(line -> lastOfPrefix[0] = line);
+            String[] firstOfSuffix = new String[1];
+            suffix.tryAdvance(line -> firstOfSuffix[0] = line);
+            assertEquals(lines.indexOf(lastOfPrefix[0]) + 1, lines.indexOf(firstOfSuffix[0]));
+        }
+    }
+}
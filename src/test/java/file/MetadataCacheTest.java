@@ -0,0 +1,183 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.google.common.jimfs.WatchServiceConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MetadataCacheTest {
+    private FileSystem fs;
+    private Path fileOne;
+    private Path dirOne;
+    private MutableClock clock;
+    private MetadataCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        fs = Jimfs.newFileSystem(Configuration.unix().toBuilder()
+                .setWatchServiceConfiguration(WatchServiceConfiguration.polling(10, TimeUnit.MILLISECONDS))
+                .build());
+        fileOne = Files.createFile(fs.getPath("/fileOne.txt"));
+        dirOne = Files.createDirectory(fs.getPath("/dirOne"));
+        clock = new MutableClock(Instant.parse("2000-01-05T00:00:00Z"));
+        cache = new MetadataCache(Duration.ofSeconds(10), clock);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cache.close();
+        fs.close();
+    }
+
+    @Test
+    public void fileExistence() throws Exception {
+        assertTrue(cache.exists(fileOne));
+        assertFalse(cache.exists(fs.getPath("/nonExistentFile")));
+    }
+
+    @Test
+    public void checkFileOrDirectory() throws Exception {
+        assertTrue(cache.isRegularFile(fileOne));
+        assertFalse(cache.isDirectory(fileOne));
+        assertTrue(cache.isDirectory(dirOne));
+        assertFalse(cache.isRegularFile(dirOne));
+    }
+
+    @Test
+    public void fileTimestampAttributes() throws Exception {
+        FileTime creationTime = FileTime.fromMillis(1511633338000L);
+        FileTime lastModifiedTime = FileTime.fromMillis(1511892535000L);
+        FileTime lastAccessTime = FileTime.fromMillis(1512065335000L);
+        Files.getFileAttributeView(fileOne, BasicFileAttributeView.class).setTimes(lastModifiedTime, lastAccessTime,
+                creationTime);
+
+        assertEquals(creationTime, cache.getAttribute(fileOne, "creationTime"));
+        assertEquals(lastModifiedTime, cache.lastModifiedTime(fileOne));
+        assertEquals(lastAccessTime, cache.getAttribute(fileOne, "basic:lastAccessTime"));
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void attributeOfNonExistentFile_throwsException() throws Exception {
+        cache.size(fs.getPath("/nonExistentFile"));
+    }
+
+    @Test
+    public void repeatedChecks_readAttributesOnce() throws Exception {
+        cache.exists(fileOne);
+        cache.isRegularFile(fileOne);
+        cache.isDirectory(fileOne);
+        cache.size(fileOne);
+
+        assertEquals(1, cache.stats().misses());
+        assertEquals(3, cache.stats().hits());
+        assertEquals(0.75, cache.stats().hitRate(), 0.0);
+    }
+
+    @Test
+    public void watchEvent_invalidatesEntry() throws Exception {
+        assertFalse(cache.exists(dirOne.resolve("fileTwo.txt")));
+        assertTrue(cache.get(dirOne.resolve("fileTwo.txt")).watched());
+
+        Files.createFile(dirOne.resolve("fileTwo.txt"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!cache.exists(dirOne.resolve("fileTwo.txt")) && System.nanoTime() < deadline) Thread.sleep(10);
+        assertTrue(cache.exists(dirOne.resolve("fileTwo.txt")));
+        assertTrue(cache.stats().invalidations() > 0);
+    }
+
+    @Test
+    public void unwatchedEntry_expiresAfterTtl() throws Exception {
+        Path root = fs.getPath("/");
+        assertTrue(cache.isDirectory(root));
+        assertFalse(cache.get(root).watched());
+
+        clock.advance(Duration.ofSeconds(9));
+        cache.isDirectory(root);
+        assertEquals(0, cache.stats().expirations());
+        assertEquals(Duration.ofSeconds(9), cache.stats().maxHitStaleness());
+
+        clock.advance(Duration.ofSeconds(1));
+        cache.isDirectory(root);
+        assertEquals(1, cache.stats().expirations());
+    }
+
+    @Test
+    public void watchedEntry_expiresAfterWatchedTtl() throws Exception {
+        assertTrue(cache.get(fileOne).watched());
+
+        clock.advance(Duration.ofSeconds(59));
+        cache.exists(fileOne);
+        assertEquals(0, cache.stats().expirations());
+
+        clock.advance(Duration.ofSeconds(1));
+        cache.exists(fileOne);
+        assertEquals(1, cache.stats().expirations());
+    }
+
+    @Test
+    public void symbolicLinks_areFollowedExceptByIsSymbolicLink() throws Exception {
+        Path link = Files.createSymbolicLink(fs.getPath("/link"), fileOne);
+        Path dangling = Files.createSymbolicLink(fs.getPath("/dangling"), fs.getPath("/nonExistentFile"));
+
+        assertTrue(cache.isSymbolicLink(link));
+        assertTrue(cache.isRegularFile(link));
+        assertFalse(cache.isSymbolicLink(fileOne));
+        assertTrue(cache.isSymbolicLink(dangling));
+        assertFalse(cache.exists(dangling));
+    }
+
+    @Test
+    public void explicitInvalidation() throws Exception {
+        assertTrue(cache.exists(fileOne));
+        Files.delete(fileOne);
+
+        cache.invalidate(fileOne);
+
+        assertFalse(cache.exists(fileOne));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
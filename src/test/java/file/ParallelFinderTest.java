@@ -0,0 +1,159 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class ParallelFinderTest {
+    private FileSystem fs;
+    private Path fileOne;
+    private Path dirOne;
+    private Path fileTwo;
+    private Path fileThree;
+
+    @Before
+    public void setUp() throws Exception {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        fileOne = Files.createFile(fs.getPath("/fileOne.txt"));
+        dirOne = Files.createDirectory(fs.getPath("/dirOne"));
+        fileTwo = Files.createFile(dirOne.resolve("fileTwo.txt"));
+        fileThree = Files.createFile(Files.createDirectory(dirOne.resolve("dirTwo")).resolve("fileThree.txt"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void findContentsInDirectory_sameAsFilesFind() throws Exception {
+        try (Stream<ParallelFinder.Match> stream = new ParallelFinder(2).find(fs.getPath("/"),
+                (path, attr) -> attr.isRegularFile())) {
+            Set<Path> contents = stream.map(ParallelFinder.Match::path).collect(Collectors.toSet());
+            assertEquals(Set.of(fileOne, fileTwo), contents);
+        }
+    }
+
+    @Test
+    public void findContentsInDirectory_unlimitedDepth() throws Exception {
+        try (Stream<ParallelFinder.Match> stream = new ParallelFinder(Integer.MAX_VALUE).find(fs.getPath("/"),
+                (path, attr) -> attr.isRegularFile())) {
+            List<ParallelFinder.Match> matches = stream.collect(Collectors.toList());
+            assertEquals(Set.of(fileOne, fileTwo, fileThree),
+                    matches.stream().map(ParallelFinder.Match::path).collect(Collectors.toSet()));
+            assertTrue(matches.stream().allMatch(match -> match.attributes().isRegularFile()));
+        }
+    }
+
+    @Test
+    public void findWithDepthZero_onlyConsidersStart() throws Exception {
+        try (Stream<ParallelFinder.Match> stream = new ParallelFinder(0).find(dirOne, (path, attr) -> true)) {
+            assertEquals(List.of(dirOne), stream.map(ParallelFinder.Match::path).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void findViaCallback() throws Exception {
+        Set<Path> contents = ConcurrentHashMap.newKeySet();
+
+        new ParallelFinder(Integer.MAX_VALUE).find(dirOne, (path, attr) -> attr.isDirectory(),
+                match -> contents.add(match.path()));
+
+        assertEquals(Set.of(dirOne, dirOne.resolve("dirTwo")), contents);
+    }
+
+    @Test
+    public void findViaCallback_canTerminateEarly() throws Exception {
+        AtomicInteger accepted = new AtomicInteger();
+
+        new ParallelFinder(Integer.MAX_VALUE).find(fs.getPath("/"), (path, attr) -> true,
+                match -> accepted.incrementAndGet() < 2);
+
+        assertEquals(2, accepted.get());
+    }
+
+    @Test
+    public void closeStreamEarly_stopsWalk() throws Exception {
+        for (int i = 0; i < 5000; i++) Files.createFile(dirOne.resolve("file" + i));
+
+        try (Stream<ParallelFinder.Match> stream = new ParallelFinder(Integer.MAX_VALUE).find(fs.getPath("/"),
+                (path, attr) -> attr.isRegularFile())) {
+            assertEquals(3, stream.limit(3).count());
+        }
+    }
+
+    @Test
+    public void followLinks_detectsCycles() throws Exception {
+        Files.createSymbolicLink(dirOne.resolve("dirTwo/loop"), dirOne);
+
+        try (Stream<ParallelFinder.Match> stream = new ParallelFinder(Integer.MAX_VALUE, FileVisitOption.FOLLOW_LINKS)
+                .find(fs.getPath("/"), (path, attr) -> true)) {
+            stream.count();
+            fail();
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause() instanceof FileSystemLoopException);
+        }
+    }
+
+    @Test
+    public void followLinks_visitsDirectoryReachableTwice() throws Exception {
+        Path link = Files.createSymbolicLink(fs.getPath("/linkToDirTwo"), dirOne.resolve("dirTwo"));
+        Set<Path> contents = ConcurrentHashMap.newKeySet();
+
+        new ParallelFinder(Integer.MAX_VALUE, FileVisitOption.FOLLOW_LINKS).find(fs.getPath("/"),
+                (path, attr) -> path.getFileName() != null && path.getFileName().toString().equals("fileThree.txt"),
+                match -> contents.add(match.path()));
+
+        assertEquals(Set.of(fileThree, link.resolve("fileThree.txt")), contents);
+    }
+
+    @Test
+    public void withoutFollowLinks_reportsLinkItself() throws Exception {
+        Path link = Files.createSymbolicLink(dirOne.resolve("dirTwo/loop"), dirOne);
+        Set<Path> contents = new HashSet<>();
+
+        new ParallelFinder(Integer.MAX_VALUE).find(fs.getPath("/"), (path, attr) -> attr.isSymbolicLink(),
+                match -> contents.add(match.path()));
+
+        assertEquals(Set.of(link), contents);
+    }
+
+    @Test
+    public void stream_rethrowsUncheckedFailureOfWalk() {
+        try (Stream<ParallelFinder.Match> stream = new ParallelFinder(Integer.MAX_VALUE).find(fs.getPath("/"),
+                (path, attr) -> {
+                    if (path.equals(fileThree)) throw new IllegalStateException("matcher failure");
+                    return attr.isRegularFile();
+                })) {
+            stream.forEach(match -> {
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals("matcher failure", expected.getMessage());
+        }
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void findFromNonExistentStart_throwsException() throws Exception {
+        new ParallelFinder(1).find(fs.getPath("/nonExistent"), (path, attr) -> true, match -> true);
+    }
+}
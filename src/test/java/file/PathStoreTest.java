@@ -0,0 +1,144 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+public class PathStoreTest {
+    private FileSystem fs;
+    private PathStore store;
+    private int path;
+
+    @Before
+    public void setUp() {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        store = new PathStore();
+        path = store.intern(fs.getPath("/partOne/partTwo/partThree"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void internSamePathTwice_returnsSameHandle() {
+        assertEquals(path, store.intern(fs.getPath("/partOne", "partTwo", "partThree")));
+        assertEquals(4, store.size());
+    }
+
+    @Test
+    public void convertBackToPath() {
+        assertEquals(fs.getPath("/partOne/partTwo/partThree"), store.toPath(path, fs));
+        assertEquals(fs.getPath("relative/path"), store.toPath(store.intern(fs.getPath("relative/path")), fs));
+    }
+
+    @Test
+    public void convertBetweenFileSystems() {
+        int handle = store.intern(Paths.get("/some/path"));
+
+        assertEquals(fs.getPath("/some/path"), store.toPath(handle, fs));
+    }
+
+    @Test
+    public void pathInformation_fileName() {
+        assertEquals("partThree", store.fileName(path));
+    }
+
+    @Test
+    public void pathInformation_nameByIndex() {
+        assertEquals("partOne", store.getName(path, 0));
+        assertEquals("partTwo", store.getName(path, 1));
+        assertEquals("partThree", store.getName(path, 2));
+        assertEquals(3, store.nameCount(path));
+    }
+
+    @Test
+    public void pathInformation_parent() {
+        assertPath("/partOne/partTwo", store.getParent(path));
+        assertEquals(PathStore.NONE, store.getParent(store.intern(fs.getPath("relative"))));
+        assertEquals(PathStore.NONE, store.getParent(store.intern(fs.getPath("/"))));
+    }
+
+    @Test
+    public void pathInformation_root() {
+        assertPath("/", store.getRoot(path));
+        assertEquals(PathStore.NONE, store.getRoot(store.intern(fs.getPath("relative/path"))));
+    }
+
+    @Test
+    public void normalizePath() {
+        assertPath("/partOne/partThree", store.normalize(store.intern(fs.getPath("/partOne/partTwo/../partThree"))));
+        assertPath("/partOne/partTwo", store.normalize(store.intern(fs.getPath("/partOne/./partTwo"))));
+        assertPath("../..", store.normalize(store.intern(fs.getPath("a/../../.."))));
+        assertPath("/", store.normalize(store.intern(fs.getPath("/.."))));
+    }
+
+    @Test
+    public void joinPaths() {
+        assertPath("/partOne/partTwo", store.resolve(store.intern(fs.getPath("/partOne")), "partTwo"));
+    }
+
+    @Test
+    public void pathBetweenTwoPaths_independentNodes() {
+        int pathOne = store.intern(fs.getPath("siblingOne"));
+        int pathTwo = store.intern(fs.getPath("siblingTwo"));
+        assertPath("../siblingTwo", store.relativize(pathOne, pathTwo));
+        assertPath("../siblingOne", store.relativize(pathTwo, pathOne));
+    }
+
+    @Test
+    public void pathBetweenTwoPaths_sharedNodes() {
+        int pathOne = store.intern(fs.getPath("sharedParent"));
+        int pathTwo = store.intern(fs.getPath("sharedParent/childOne/childTwo"));
+        assertPath("childOne/childTwo", store.relativize(pathOne, pathTwo));
+        assertPath("../..", store.relativize(pathTwo, pathOne));
+        assertPath("", store.relativize(pathOne, pathOne));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pathBetweenAbsoluteAndRelativePath_throwsException() {
+        store.relativize(path, store.intern(fs.getPath("relative")));
+    }
+
+    @Test
+    public void pathComparison() {
+        assertTrue(store.startsWith(path, store.intern(fs.getPath("/partOne"))));
+        assertFalse(store.startsWith(path, store.intern(fs.getPath("partOne"))));
+        assertTrue(store.endsWith(path, store.intern(fs.getPath("partThree"))));
+        assertTrue(store.endsWith(path, store.intern(fs.getPath("partTwo/partThree"))));
+        assertFalse(store.endsWith(path, store.intern(fs.getPath("/partThree"))));
+    }
+
+    @Test
+    public void pathOrdering() {
+        int relative = store.intern(fs.getPath("relative"));
+        int parent = store.intern(fs.getPath("/partOne/partTwo"));
+        int sibling = store.intern(fs.getPath("/partOne/partTwo/partFour"));
+
+        assertTrue(store.compare(relative, path) < 0);
+        assertTrue(store.compare(parent, path) < 0);
+        assertTrue(store.compare(path, sibling) > 0);
+        assertEquals(0, store.compare(path, path));
+    }
+
+    @Test
+    public void manyPaths_shareSegments() {
+        for (int i = 0; i < 10_000; i++) store.intern(fs.getPath("/partOne/dir" + (i % 10) + "/file" + i));
+
+        assertEquals(4 + 10 + 10_000, store.segmentCount());
+        assertPath("/partOne/dir3/file9993", store.intern(fs.getPath("/partOne/dir3/file9993")));
+    }
+
+    private void assertPath(String expectedPathName, int actualHandle) {
+        assertEquals(fs.getPath(expectedPathName), store.toPath(actualHandle, fs));
+    }
+}
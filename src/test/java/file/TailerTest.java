@@ -0,0 +1,204 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.google.common.jimfs.WatchServiceConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TailerTest {
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+    private FileSystem fs;
+    private Path log;
+    private List<String> lines;
+
+    @Before
+    public void setUp() throws Exception {
+        fs = Jimfs.newFileSystem(Configuration.unix().toBuilder()
+                .setWatchServiceConfiguration(WatchServiceConfiguration.polling(10, TimeUnit.MILLISECONDS))
+                .build());
+        log = fs.getPath("/app.log");
+        lines = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void poll_deliversOnlyCompleteAppendedLines() throws Exception {
+        append("line1\nline2\npart");
+        try (Tailer tailer = new Tailer(log, POLL_INTERVAL)) {
+            assertEquals(2, tailer.poll(this::collect));
+            assertEquals(12, tailer.offset());
+
+            assertEquals(0, tailer.poll(this::collect));
+            append("ial\r\nline4\n");
+            assertEquals(2, tailer.poll(this::collect));
+
+            assertEquals(Arrays.asList("line1", "line2", "partial", "line4"), lines);
+            assertEquals(Files.size(log), tailer.offset());
+        }
+    }
+
+    @Test
+    public void poll_growsBufferForLongLines() throws Exception {
+        String longLine = String.join("", Collections.nCopies(100_000, "x"));
+        append(longLine + "\nshort\n");
+        try (Tailer tailer = new Tailer(log, POLL_INTERVAL)) {
+            tailer.poll(this::collect);
+
+            assertEquals(Arrays.asList(longLine, "short"), lines);
+        }
+    }
+
+    @Test
+    public void resumeFromCheckpoint_skipsDeliveredLines() throws Exception {
+        append("line1\nline2\n");
+        long checkpoint;
+        try (Tailer tailer = new Tailer(log, POLL_INTERVAL)) {
+            tailer.poll(this::collect);
+            checkpoint = tailer.offset();
+        }
+        append("line3\n");
+        lines.clear();
+
+        try (Tailer tailer = new Tailer(log, checkpoint, POLL_INTERVAL)) {
+            tailer.poll(this::collect);
+        }
+
+        assertEquals(Collections.singletonList("line3"), lines);
+    }
+
+    @Test
+    public void truncatedFile_isFollowedFromStart() throws Exception {
+        append("line1\nline2\n");
+        try (Tailer tailer = new Tailer(log, POLL_INTERVAL)) {
+            tailer.poll(this::collect);
+            Files.write(log, "new\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            tailer.poll(this::collect);
+
+            assertEquals(Arrays.asList("line1", "line2", "new"), lines);
+            assertEquals(4, tailer.offset());
+        }
+    }
+
+    @Test
+    public void checkpointBeyondEnd_isFollowedFromStart() throws Exception {
+        append("line1\n");
+        try (Tailer tailer = new Tailer(log, 1000, POLL_INTERVAL)) {
+            tailer.poll(this::collect);
+        }
+
+        assertEquals(Collections.singletonList("line1"), lines);
+    }
+
+    @Test
+    public void rotatedFile_drainsOldFileThenFollowsNew() throws Exception {
+        append("line1\n");
+        try (Tailer tailer = new Tailer(log, POLL_INTERVAL)) {
+            tailer.poll(this::collect);
+            append("line2\nunterminated");
+            Files.move(log, fs.getPath("/app.log.1"));
+            assertEquals(1, tailer.poll(this::collect));
+
+            append("rotated1\n");
+            assertEquals(2, tailer.poll(this::collect));
+
+            assertEquals(Arrays.asList("line1", "line2", "unterminated", "rotated1"), lines);
+        }
+    }
+
+    @Test
+    public void missingFile_hasNoLinesUntilCreated() throws Exception {
+        try (Tailer tailer = new Tailer(log, POLL_INTERVAL)) {
+            assertEquals(0, tailer.poll(this::collect));
+            append("line1\n");
+            assertEquals(1, tailer.poll(this::collect));
+        }
+    }
+
+    @Test
+    public void start_followsAppendsInBackground() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        append("line1\n");
+        try (Tailer tailer = new Tailer(log, Duration.ofSeconds(10))) {
+            tailer.start((line, nextOffset) -> received.add(line));
+            assertEquals("line1", received.poll(5, TimeUnit.SECONDS));
+
+            append("line2\n");
+            assertEquals("line2", received.poll(5, TimeUnit.SECONDS));
+        }
+        append("line3\n");
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void start_readFailureStopsThreadAndIsExposed() throws Exception {
+        Files.createDirectory(log);
+        try (Tailer tailer = new Tailer(log, POLL_INTERVAL)) {
+            tailer.start(this::collect);
+
+            assertTrue(awaitFailure(tailer) instanceof IOException);
+        }
+    }
+
+    @Test
+    public void start_listenerFailureStopsThreadAndIsExposed() throws Exception {
+        append("line1\n");
+        try (Tailer tailer = new Tailer(log, POLL_INTERVAL)) {
+            tailer.start((line, nextOffset) -> {
+                throw new IllegalStateException(line);
+            });
+
+            assertEquals("line1", awaitFailure(tailer).getMessage());
+        }
+    }
+
+    @Test
+    public void close_leavesNoFailure() throws Exception {
+        append("line1\n");
+        Tailer tailer = new Tailer(log, POLL_INTERVAL);
+        tailer.start(this::collect);
+        tailer.close();
+
+        assertNull(tailer.failure());
+    }
+
+    private static Exception awaitFailure(Tailer tailer) throws InterruptedException {
+        for (int i = 0; i < 500 && tailer.failure() == null; i++) Thread.sleep(10);
+        assertNotNull(tailer.failure());
+        return tailer.failure();
+    }
+
+    private void collect(String line, long nextOffset) {
+        lines.add(line);
+    }
+
+    private void append(String s) throws Exception {
+        Files.write(log, s.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,149 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TreeCopierTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+    private FileSystem fs;
+    private Path dirOne;
+    private Path fileTwo;
+    private Path dirThree;
+    private Path fileFour;
+
+    @Before
+    public void setUp() throws Exception {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        dirOne = Files.createDirectory(fs.getPath("/dirOne"));
+        fileTwo = Files.write(dirOne.resolve("fileTwo.txt"), "fileTwo".getBytes(StandardCharsets.UTF_8));
+        dirThree = Files.createDirectory(dirOne.resolve("dirThree"));
+        fileFour = Files.write(dirThree.resolve("fileFour.txt"), "fileFour".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void copyDirectory_copiesContentsRecursively() throws Exception {
+        Path dirOneCopy = fs.getPath("/dirOneCopy");
+
+        TreeCopier.Result result = new TreeCopier().copy(dirOne, dirOneCopy);
+
+        assertEquals("fileTwo", readString(dirOneCopy.resolve("fileTwo.txt")));
+        assertEquals("fileFour", readString(dirOneCopy.resolve("dirThree/fileFour.txt")));
+        assertEquals(2, result.files());
+        assertEquals(2, result.directories());
+        assertEquals("fileTwo".length() + "fileFour".length(), result.bytes());
+    }
+
+    @Test
+    public void copyDirectory_preservesTimestamps() throws Exception {
+        FileTime creationTime = FileTime.fromMillis(1511633338000L);
+        FileTime lastModifiedTime = FileTime.fromMillis(1511892535000L);
+        FileTime lastAccessTime = FileTime.fromMillis(1512065335000L);
+        Files.getFileAttributeView(fileFour, BasicFileAttributeView.class).setTimes(lastModifiedTime, lastAccessTime,
+                creationTime);
+        Files.getFileAttributeView(dirThree, BasicFileAttributeView.class).setTimes(lastModifiedTime, lastAccessTime,
+                creationTime);
+        Path dirOneCopy = fs.getPath("/dirOneCopy");
+
+        new TreeCopier().copy(dirOne, dirOneCopy);
+
+        Path fileFourCopy = dirOneCopy.resolve("dirThree/fileFour.txt");
+        assertEquals(creationTime, Files.getAttribute(fileFourCopy, "creationTime"));
+        assertEquals(lastModifiedTime, Files.getLastModifiedTime(fileFourCopy));
+        assertEquals(lastAccessTime, Files.getAttribute(fileFourCopy, "lastAccessTime"));
+        assertEquals(lastModifiedTime, Files.getLastModifiedTime(dirOneCopy.resolve("dirThree")));
+    }
+
+    @Test(expected = FileAlreadyExistsException.class)
+    public void copyDirectory_targetAlreadyExists_throwsException() throws Exception {
+        Path dirOneCopy = Files.createDirectory(fs.getPath("/dirOneCopy"));
+
+        new TreeCopier().copy(dirOne, dirOneCopy);
+    }
+
+    @Test
+    public void copyDirectoryWithReplaceExistingOption_targetAlreadyExists_succeeds() throws Exception {
+        Path dirOneCopy = Files.createDirectory(fs.getPath("/dirOneCopy"));
+        Files.write(dirOneCopy.resolve("fileTwo.txt"), "staleFileTwoContents".getBytes(StandardCharsets.UTF_8));
+
+        new TreeCopier(StandardCopyOption.REPLACE_EXISTING).copy(dirOne, dirOneCopy);
+
+        assertEquals("fileTwo", readString(dirOneCopy.resolve("fileTwo.txt")));
+        assertEquals("fileFour", readString(dirOneCopy.resolve("dirThree/fileFour.txt")));
+    }
+
+    @Test
+    public void replaceExisting_replacesTargetLinkInsteadOfItsReferent() throws Exception {
+        Path outside = Files.write(fs.getPath("/outside.txt"), "outside".getBytes(StandardCharsets.UTF_8));
+        Path dirOneCopy = Files.createDirectory(fs.getPath("/dirOneCopy"));
+        Files.createSymbolicLink(dirOneCopy.resolve("fileTwo.txt"), outside);
+
+        new TreeCopier(StandardCopyOption.REPLACE_EXISTING).copy(dirOne, dirOneCopy);
+
+        assertFalse(Files.isSymbolicLink(dirOneCopy.resolve("fileTwo.txt")));
+        assertEquals("fileTwo", readString(dirOneCopy.resolve("fileTwo.txt")));
+        assertEquals("outside", readString(outside));
+    }
+
+    @Test
+    public void copyDirectory_acrossFileSystems() throws Exception {
+        Path defaultFsCopy = tempFolder.getRoot().toPath().resolve("dirOneCopy");
+        Path jimfsCopy = fs.getPath("/dirOneCopyOfCopy");
+
+        new TreeCopier().copy(dirOne, defaultFsCopy);
+        new TreeCopier().copy(defaultFsCopy, jimfsCopy);
+
+        assertEquals("fileFour", readString(defaultFsCopy.resolve("dirThree").resolve("fileFour.txt")));
+        assertEquals("fileFour", readString(jimfsCopy.resolve("dirThree/fileFour.txt")));
+    }
+
+    @Test
+    public void copyDirectory_reportsProgress() throws Exception {
+        AtomicLong copiedBytes = new AtomicLong();
+        TreeCopier copier = new TreeCopier(ForkJoinPool.commonPool(),
+                (source, target, bytes) -> copiedBytes.addAndGet(bytes));
+
+        TreeCopier.Result result = copier.copy(dirOne, fs.getPath("/dirOneCopy"));
+
+        assertEquals(result.bytes(), copiedBytes.get());
+        assertTrue(result.bytesPerSecond() > 0);
+    }
+
+    @Test
+    public void copyFile() throws Exception {
+        Path fileTwoCopy = fs.getPath("/fileTwoCopy");
+
+        TreeCopier.Result result = new TreeCopier().copy(fileTwo, fileTwoCopy);
+
+        assertEquals("fileTwo", readString(fileTwoCopy));
+        assertEquals(1, result.files());
+        assertEquals(0, result.directories());
+    }
+
+    private String readString(Path file) throws Exception {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TreeDeleterTest {
+    private FileSystem fs;
+    private Path dirOne;
+
+    @Before
+    public void setUp() throws Exception {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        dirOne = Files.createDirectory(fs.getPath("/dirOne"));
+        Files.createFile(dirOne.resolve("fileTwo.txt"));
+        Path dirThree = Files.createDirectory(dirOne.resolve("dirThree"));
+        for (int i = 0; i < 100; i++) Files.createFile(dirThree.resolve("file" + i));
+        Files.createDirectories(dirOne.resolve("dirFour/dirFive"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void deleteNonEmptyDirectory_deletesRecursively() throws Exception {
+        TreeDeleter.Result result = new TreeDeleter().delete(dirOne);
+
+        assertTrue(Files.notExists(dirOne));
+        assertEquals(101, result.files());
+        assertEquals(4, result.directories());
+    }
+
+    @Test
+    public void deleteNonExistentDirectory_failsSilently() throws Exception {
+        TreeDeleter.Result result = new TreeDeleter().delete(fs.getPath("/nonExistentDir"));
+
+        assertEquals(0, result.files());
+        assertEquals(0, result.directories());
+    }
+
+    @Test
+    public void deleteFile() throws Exception {
+        TreeDeleter.Result result = new TreeDeleter().delete(dirOne.resolve("fileTwo.txt"));
+
+        assertTrue(Files.notExists(dirOne.resolve("fileTwo.txt")));
+        assertEquals(1, result.files());
+    }
+
+    @Test
+    public void deleteSymbolicLinkToDirectory_doesNotFollowLink() throws Exception {
+        Path link = Files.createSymbolicLink(fs.getPath("/link"), dirOne);
+        Path dirWithLink = Files.createDirectory(fs.getPath("/dirWithLink"));
+        Files.move(link, dirWithLink.resolve("link"));
+
+        TreeDeleter.Result result = new TreeDeleter().delete(dirWithLink);
+
+        assertTrue(Files.notExists(dirWithLink));
+        assertTrue(Files.exists(dirOne.resolve("fileTwo.txt")));
+        assertEquals(1, result.files());
+    }
+}
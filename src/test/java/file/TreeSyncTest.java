@@ -0,0 +1,201 @@
+package file;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TreeSyncTest {
+    private static final int CHUNK_SIZE = 4;
+    private FileSystem fs;
+    private Path source;
+    private Path target;
+    private TreeSync sync;
+    private long modified = 1_000_000_000L;
+
+    @Before
+    public void setUp() throws Exception {
+        fs = Jimfs.newFileSystem(Configuration.unix().toBuilder().setAttributeViews("basic", "posix").build());
+        source = Files.createDirectory(fs.getPath("/source"));
+        target = fs.getPath("/target");
+        write("fileOne.txt", "0123456789abcdef");
+        write("dirTwo/fileThree.txt", "three");
+        write("dirTwo/dirFour/fileFive.txt", "");
+        sync = new TreeSync(ForkJoinPool.commonPool(), CHUNK_SIZE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.close();
+    }
+
+    @Test
+    public void firstSync_copiesEverything() throws Exception {
+        TreeSync.Result result = sync.sync(source, target);
+
+        assertEquals(3, result.files());
+        assertEquals(3, result.directories());
+        assertEquals(3, result.filesWritten());
+        assertEquals(21, result.bytesWritten());
+        assertEquals("0123456789abcdef", read("fileOne.txt"));
+        assertEquals("three", read("dirTwo/fileThree.txt"));
+        assertEquals("", read("dirTwo/dirFour/fileFive.txt"));
+        assertEquals(Files.getLastModifiedTime(source.resolve("fileOne.txt")),
+                Files.getLastModifiedTime(target.resolve("fileOne.txt")));
+        assertTrue(Files.exists(target.resolve(TreeSync.MANIFEST_NAME)));
+    }
+
+    @Test
+    public void resync_skipsUnchangedFilesWithoutReading() throws Exception {
+        sync.sync(source, target);
+
+        TreeSync.Result result = sync.sync(source, target);
+
+        assertEquals(3, result.unchanged());
+        assertEquals(0, result.filesWritten());
+        assertEquals(0, result.bytesHashed());
+    }
+
+    @Test
+    public void changedChunk_isTheOnlyChunkWritten() throws Exception {
+        sync.sync(source, target);
+        write("fileOne.txt", "0123456X89abcdef");
+
+        TreeSync.Result result = sync.sync(source, target);
+
+        assertEquals(1, result.filesWritten());
+        assertEquals(1, result.chunksWritten());
+        assertEquals(CHUNK_SIZE, result.bytesWritten());
+        assertEquals("the target is copied before the chunk is written", 16, result.bytesCopied());
+        assertEquals("target hashes come from the manifest", 16, result.bytesHashed());
+        assertEquals("0123456X89abcdef", read("fileOne.txt"));
+    }
+
+    @Test
+    public void writtenFiles_getSourcePermissions() throws Exception {
+        Path file = source.resolve("fileOne.txt");
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rwxr-x---"));
+        sync.sync(source, target);
+
+        assertEquals("rwxr-x---", permissions("fileOne.txt"));
+
+        write("fileOne.txt", "0123456X89abcdef");
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r--r--"));
+        sync.sync(source, target);
+
+        assertEquals("rw-r--r--", permissions("fileOne.txt"));
+    }
+
+    @Test
+    public void touchedFile_isNotRewritten() throws Exception {
+        sync.sync(source, target);
+        FileTime touched = FileTime.from(Instant.parse("2030-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(source.resolve("fileOne.txt"), touched);
+
+        TreeSync.Result result = sync.sync(source, target);
+
+        assertEquals(0, result.filesWritten());
+        assertEquals(3, result.unchanged());
+        assertEquals("unchanged content is read once and not copied", 16, result.bytesHashed());
+        assertEquals(0, result.bytesCopied());
+        assertEquals(touched, Files.getLastModifiedTime(target.resolve("fileOne.txt")));
+    }
+
+    @Test
+    public void permissionChange_reachesUnchangedFiles() throws Exception {
+        sync.sync(source, target);
+        Files.setPosixFilePermissions(source.resolve("fileOne.txt"), PosixFilePermissions.fromString("rwx------"));
+        Files.setPosixFilePermissions(source.resolve("dirTwo/fileThree.txt"),
+                PosixFilePermissions.fromString("r--r--r--"));
+        Files.setLastModifiedTime(source.resolve("dirTwo/fileThree.txt"),
+                FileTime.from(Instant.parse("2030-01-01T00:00:00Z")));
+
+        TreeSync.Result result = sync.sync(source, target);
+
+        assertEquals(0, result.filesWritten());
+        assertEquals("rwx------", permissions("fileOne.txt"));
+        assertEquals("r--r--r--", permissions("dirTwo/fileThree.txt"));
+    }
+
+    @Test
+    public void grownAndShrunkFiles_areResized() throws Exception {
+        sync.sync(source, target);
+        write("fileOne.txt", "0123456789ab");
+        write("dirTwo/fileThree.txt", "three and more");
+
+        TreeSync.Result result = sync.sync(source, target);
+
+        assertEquals(2, result.filesWritten());
+        assertEquals(3, result.chunksWritten());
+        assertEquals("0123456789ab", read("fileOne.txt"));
+        assertEquals("three and more", read("dirTwo/fileThree.txt"));
+    }
+
+    @Test
+    public void withoutManifest_targetIsHashed() throws Exception {
+        sync.sync(source, target);
+        Files.delete(target.resolve(TreeSync.MANIFEST_NAME));
+        write("fileOne.txt", "0123456789abcdeF");
+
+        TreeSync.Result result = sync.sync(source, target);
+
+        assertEquals(1, result.chunksWritten());
+        assertEquals(32, result.bytesHashed());
+        assertEquals("0123456789abcdeF", read("fileOne.txt"));
+    }
+
+    @Test
+    public void extraneousTargetEntries_areDeleted() throws Exception {
+        sync.sync(source, target);
+        Files.write(target.resolve("dirTwo/stale.txt"), new byte[1]);
+        Files.createDirectories(target.resolve("staleDir/inner"));
+        Files.delete(source.resolve("dirTwo/fileThree.txt"));
+
+        TreeSync.Result result = sync.sync(source, target);
+
+        assertEquals(3, result.deleted());
+        assertFalse(Files.exists(target.resolve("dirTwo/stale.txt")));
+        assertFalse(Files.exists(target.resolve("dirTwo/fileThree.txt")));
+        assertFalse(Files.exists(target.resolve("staleDir")));
+        assertTrue(Files.exists(target.resolve(TreeSync.MANIFEST_NAME)));
+    }
+
+    @Test
+    public void targetDirectoryReplacedByFile() throws Exception {
+        Files.createDirectories(target.resolve("fileOne.txt/inner"));
+
+        sync.sync(source, target);
+
+        assertEquals("0123456789abcdef", read("fileOne.txt"));
+    }
+
+    private void write(String name, String content) throws Exception {
+        Path file = source.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        modified += 1000;
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+    }
+
+    private String permissions(String name) throws Exception {
+        return PosixFilePermissions.toString(Files.getPosixFilePermissions(target.resolve(name)));
+    }
+
+    private String read(String name) throws Exception {
+        return new String(Files.readAllBytes(target.resolve(name)), StandardCharsets.UTF_8);
+    }
+}